@@ -0,0 +1,79 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.concurrent.TimeUnit;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the time to hide, and to show, a {@link Console.Channel} of a console that holds the specified number
+ * of lines, from the call to the rebuilt area on the <code>JavaFX Application Thread</code>.
+ * <br/>
+ * The lines of the channel are either interleaved with the other lines from the top of the document, so that the
+ * whole document is rebuilt, or are the most recent {@link ChannelBenchmark#RECENT_LINES} lines, so that only those
+ * lines are rebuilt. As a toggle of the interleaved channel of a document of a million lines takes seconds, each
+ * invocation is measured on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ChannelBenchmark {
+
+    static final int RECENT_LINES = 1000;
+
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog 0123456789";
+
+    @Param({ "100000", "1000000" })
+    public int lines;
+
+    @Param({ "true", "false" })
+    public boolean interleaved;
+
+    private Console console;
+
+    private Console.Channel channel;
+
+    private Stage stage;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Fx.startup();
+        console = Fx.call(() -> {
+            Console console = new Console();
+            stage = new Stage();
+            stage.setScene(new Scene(console, 800, 600));
+            stage.show();
+            return console;
+        });
+        channel = console.channel("db");
+        for (int i = 0; i < lines; i++) {
+            boolean channelLine = interleaved ? (i % 3 == 0) : (lines - RECENT_LINES <= i);
+            if (channelLine) {
+                channel.println(TEXT);
+            } else {
+                console.println(TEXT);
+            }
+        }
+        console.awaitDrained();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Fx.call(() -> {
+            stage.close();
+            return null;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void toggle() throws InterruptedException {
+        channel.setVisible(false);
+        console.awaitDrained();
+        channel.setVisible(true);
+        console.awaitDrained();
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.concurrent.TimeUnit;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the end-to-end throughput, in lines per second, of printing to a {@link Console}; from the calling
+ * thread, through the output queue, to the text area on the <code>JavaFX Application Thread</code>.
+ * <br/>
+ * Each invocation prints {@link ConsoleBenchmark#LINES} lines and waits for them to be drained.
+ * The console retains at most {@link ConsoleBenchmark#MAX_LINES} lines, so that each iteration
+ * runs against a steady-state document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsoleBenchmark {
+
+    static final int LINES = 1000;
+
+    static final int MAX_LINES = 10_000;
+
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog 0123456789";
+
+    private static final String ANSI_TEXT = "\u001B[1;32mINFO\u001B[0m " + TEXT;
+
+    private Console console;
+
+    private Stage stage;
+
+    private StyleText styleText;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Fx.startup();
+        console = Fx.call(() -> {
+            Console console = new Console();
+            console.setMaxLines(MAX_LINES);
+            stage = new Stage();
+            stage.setScene(new Scene(console, 800, 600));
+            stage.show();
+            return console;
+        });
+        styleText = new StyleTextBuilder()
+                .append("[main]", "prefix")
+                .whitespace()
+                .append(TEXT, "text")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Fx.call(() -> {
+            stage.close();
+            return null;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void println() throws InterruptedException {
+        for (int i = 0; i < LINES; i++) {
+            console.println(TEXT);
+        }
+        console.awaitDrained();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void printlnStyleText() throws InterruptedException {
+        for (int i = 0; i < LINES; i++) {
+            console.println(styleText);
+        }
+        console.awaitDrained();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void printStreamAnsi() throws InterruptedException {
+        for (int i = 0; i < LINES; i++) {
+            console.out.println(ANSI_TEXT);
+        }
+        console.awaitDrained();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    @Threads(4)
+    public void printlnContended() throws InterruptedException {
+        for (int i = 0; i < LINES; i++) {
+            console.println(TEXT);
+        }
+        console.awaitDrained();
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.fxmisc.richtext.StyleClassedTextArea;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the time spent on the <code>JavaFX Application Thread</code> per batch, i.e. to append
+ * {@link OutputBatchBenchmark#LINES} styled lines to the text area using a single edit.
+ * <br/>
+ * The measured time includes the hand-off to the JavaFX Application Thread, which is in the order of
+ * microseconds, and is negligible compared to the time of a batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputBatchBenchmark {
+
+    @Param({ "1", "100", "1000" })
+    public int lines;
+
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog 0123456789";
+
+    private static final List<String> STYLE_CLASSES = StyleSegment.intern(Collections.singletonList("text"));
+
+    private StyleClassedTextArea area;
+
+    private OutputBatch batch;
+
+    private Stage stage;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Fx.startup();
+        Fx.call(() -> {
+            area = new StyleClassedTextArea();
+            batch = new OutputBatch(area);
+            stage = new Stage();
+            stage.setScene(new Scene(area, 800, 600));
+            stage.show();
+            return null;
+        });
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() throws Exception {
+        Fx.call(() -> {
+            area.clear();
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Fx.call(() -> {
+            stage.close();
+            return null;
+        });
+    }
+
+    @Benchmark
+    public boolean flush() throws Exception {
+        return Fx.call(() -> {
+            for (int i = 0; i < lines; i++) {
+                batch.append(TEXT, STYLE_CLASSES);
+                batch.append("\n", STYLE_CLASSES);
+            }
+            return batch.flush();
+        });
+    }
+}
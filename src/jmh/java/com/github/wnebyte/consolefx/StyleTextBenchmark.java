@@ -0,0 +1,57 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the construction of a {@link StyleText}, either directly or using a {@link StyleTextBuilder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StyleTextBenchmark {
+
+    @Param({ "1", "16", "256" })
+    public int segments;
+
+    private List<StyleSegment> styleSegments;
+
+    @Setup
+    public void setup() {
+        styleSegments = new ArrayList<>(segments);
+        for (int i = 0; i < segments; i++) {
+            styleSegments.add((i % 4 == 3) ?
+                    new StyleSegment("\n", Collections.emptyList()) :
+                    new StyleSegment("segment " + i, Collections.singletonList("text")));
+        }
+    }
+
+    @Benchmark
+    public StyleText build() {
+        StyleTextBuilder builder = new StyleTextBuilder();
+        for (int i = 0; i < segments; i++) {
+            if (i % 4 == 3) {
+                builder.ln();
+            } else {
+                builder.append("segment", "text").whitespace();
+            }
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public StyleText construct() {
+        return new StyleText(styleSegments);
+    }
+
+    @Benchmark
+    public String getLastLine() {
+        return new StyleText(styleSegments).getLastLine();
+    }
+}
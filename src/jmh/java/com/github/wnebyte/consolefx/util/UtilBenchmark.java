@@ -0,0 +1,66 @@
+package com.github.wnebyte.consolefx.util;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the String and Collection utility-methods that are used on the output and input paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilBenchmark {
+
+    @Param({ "16", "1024" })
+    public int length;
+
+    private String text;
+
+    private String masked;
+
+    private char[] secret;
+
+    private List<Character> chars;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((i % 32 == 31) ? '\n' : (char) ('a' + i % 26));
+        }
+        text = sb.toString();
+        secret = new char[length / 2];
+        Arrays.fill(secret, 's');
+        masked = "login " + new String(new char[secret.length]).replace('\0', '*');
+        chars = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            chars.add(text.charAt(i));
+        }
+    }
+
+    @Benchmark
+    public List<String> split() {
+        return Strings.split(text);
+    }
+
+    @Benchmark
+    public String replaceSequence() {
+        return Strings.replaceSequence(masked, new String(secret), '*');
+    }
+
+    @Benchmark
+    public char[] replaceSequenceChars() {
+        return Strings.replaceSequence(masked, secret, '*');
+    }
+
+    @Benchmark
+    public char[] toCharArray() {
+        return Collections.toCharArray(chars);
+    }
+}
@@ -0,0 +1,297 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+
+/**
+ * This class represents an incremental parser for <code>ANSI/VT100</code> escape sequences.
+ * <p>
+ * Text is passed to the parser in arbitrarily sized chunks, and any escape sequence may be split across
+ * chunks. <code>SGR</code> sequences are translated into style classes, for instance <code>ansi-fg-red</code>
+ * or <code>ansi-bold</code>, which are applied to the text that follows them. Any other escape sequence is
+ * discarded.
+ */
+final class AnsiParser {
+
+    /**
+     * This interface declares a method that is called for every run of text that has been parsed.
+     */
+    @FunctionalInterface
+    interface Handler {
+
+        void accept(String text, List<String> styleClasses);
+    }
+
+    static final String STYLE_CLASS_PREFIX = "ansi-";
+
+    static final String[] COLORS = {
+            "black", "red", "green", "yellow", "blue", "magenta", "cyan", "white"
+    };
+
+    private static final char ESC = '\u001B';
+
+    private static final char BEL = '\u0007';
+
+    private static final int MAX_PARAMS = 16;
+
+    private static final int TEXT = 0, ESCAPE = 1, CSI = 2, OSC = 3, OSC_ESCAPE = 4;
+
+    private static final int BOLD = 1, FAINT = 1 << 1, ITALIC = 1 << 2, UNDERLINE = 1 << 3, STRIKETHROUGH = 1 << 4;
+
+    private static final int DEFAULT_COLOR = -1;
+
+    private final int[] params;
+
+    private final Map<Integer, List<String>> cache;
+
+    private int state;
+
+    private int paramCount;
+
+    private boolean privateSequence;
+
+    private int attributes;
+
+    private int fg;
+
+    private int bg;
+
+    private List<String> styleClasses;
+
+    AnsiParser() {
+        this.params = new int[MAX_PARAMS];
+        this.cache = new HashMap<>();
+        this.state = TEXT;
+        reset();
+    }
+
+    /**
+     * Parses the specified range of <code>chars</code>, and passes every run of text that is
+     * found to the specified <code>handler</code>, along with the style classes that apply to it.
+     * @param chars   to be parsed.
+     * @param off     the offset of the first char to be parsed.
+     * @param len     the number of chars to be parsed.
+     * @param handler to be passed the parsed text.
+     */
+    void parse(char[] chars, int off, int len, Handler handler) {
+        int end = off + len;
+        int start = off;
+
+        for (int i = off; i < end; i++) {
+            char c = chars[i];
+            switch (state) {
+                case TEXT:
+                    if (c == ESC) {
+                        if (start < i) {
+                            handler.accept(new String(chars, start, i - start), styleClasses);
+                        }
+                        state = ESCAPE;
+                    }
+                    break;
+                case ESCAPE:
+                    if (c == '[') {
+                        state = CSI;
+                        paramCount = 0;
+                        params[0] = 0;
+                        privateSequence = false;
+                    } else if (c == ']') {
+                        state = OSC;
+                    } else {
+                        // two char sequences are discarded
+                        state = TEXT;
+                        start = i + 1;
+                    }
+                    break;
+                case CSI:
+                    if (c >= '0' && c <= '9') {
+                        if (paramCount == 0) {
+                            paramCount = 1;
+                        }
+                        if (paramCount <= MAX_PARAMS) {
+                            params[paramCount - 1] = params[paramCount - 1] * 10 + (c - '0');
+                        }
+                    } else if (c == ';' || c == ':') {
+                        if (paramCount == 0) {
+                            paramCount = 1;
+                        }
+                        if (paramCount < MAX_PARAMS) {
+                            params[paramCount] = 0;
+                        }
+                        paramCount++;
+                    } else if (c >= '<' && c <= '?') {
+                        privateSequence = true;
+                    } else if (c >= '@' && c <= '~') {
+                        if (c == 'm' && !privateSequence) {
+                            applySgr(Math.min(paramCount, MAX_PARAMS));
+                        }
+                        state = TEXT;
+                        start = i + 1;
+                    } else if (c < ' ' || c > '/') {
+                        // malformed sequence
+                        state = TEXT;
+                        start = i + 1;
+                    }
+                    break;
+                case OSC:
+                    if (c == BEL) {
+                        state = TEXT;
+                        start = i + 1;
+                    } else if (c == ESC) {
+                        state = OSC_ESCAPE;
+                    }
+                    break;
+                case OSC_ESCAPE:
+                    state = (c == '\\') ? TEXT : OSC;
+                    start = i + 1;
+                    break;
+            }
+        }
+        if (state == TEXT && start < end) {
+            handler.accept(new String(chars, start, end - start), styleClasses);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the parser is in the middle of an escape sequence,
+     * otherwise <code>false</code>.
+     */
+    boolean isPending() {
+        return (state != TEXT);
+    }
+
+    /**
+     * @param s a String.
+     * @return <code>true</code> if the specified String has to be parsed, otherwise <code>false</code>.
+     */
+    boolean requiresParsing(String s) {
+        return isPending() || (s.indexOf(ESC) != -1);
+    }
+
+    /**
+     * @return the style classes that correspond to the current graphic rendition.
+     */
+    List<String> getStyleClasses() {
+        return styleClasses;
+    }
+
+    /**
+     * Resets the parser to its initial graphic rendition.
+     */
+    void reset() {
+        this.attributes = 0;
+        this.fg = DEFAULT_COLOR;
+        this.bg = DEFAULT_COLOR;
+        this.styleClasses = Collections.emptyList();
+    }
+
+    private void applySgr(int n) {
+        if (n == 0) {
+            reset();
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            int p = params[i];
+            if (p == 0) {
+                attributes = 0;
+                fg = DEFAULT_COLOR;
+                bg = DEFAULT_COLOR;
+            } else if (p == 1) {
+                attributes |= BOLD;
+            } else if (p == 2) {
+                attributes |= FAINT;
+            } else if (p == 3) {
+                attributes |= ITALIC;
+            } else if (p == 4) {
+                attributes |= UNDERLINE;
+            } else if (p == 9) {
+                attributes |= STRIKETHROUGH;
+            } else if (p == 22) {
+                attributes &= ~(BOLD | FAINT);
+            } else if (p == 23) {
+                attributes &= ~ITALIC;
+            } else if (p == 24) {
+                attributes &= ~UNDERLINE;
+            } else if (p == 29) {
+                attributes &= ~STRIKETHROUGH;
+            } else if (p >= 30 && p <= 37) {
+                fg = p - 30;
+            } else if (p == 39) {
+                fg = DEFAULT_COLOR;
+            } else if (p >= 40 && p <= 47) {
+                bg = p - 40;
+            } else if (p == 49) {
+                bg = DEFAULT_COLOR;
+            } else if (p >= 90 && p <= 97) {
+                fg = p - 90 + 8;
+            } else if (p >= 100 && p <= 107) {
+                bg = p - 100 + 8;
+            } else if (p == 38 || p == 48) {
+                // extended colors, only the 16 standard colors of the 256 color palette are supported
+                int color = DEFAULT_COLOR;
+                if (i + 2 < n && params[i + 1] == 5) {
+                    color = (params[i + 2] < 16) ? params[i + 2] : DEFAULT_COLOR;
+                    i += 2;
+                } else if (i + 4 < n && params[i + 1] == 2) {
+                    i += 4;
+                } else {
+                    i = n;
+                }
+                if (p == 38) {
+                    fg = color;
+                } else {
+                    bg = color;
+                }
+            }
+        }
+        styleClasses = styleClasses();
+    }
+
+    /**
+     * Returns the style classes that correspond to the current graphic rendition.
+     * Lists are cached, so that every distinct rendition is represented by a single list.
+     */
+    private List<String> styleClasses() {
+        int key = attributes | ((fg + 1) << 8) | ((bg + 1) << 16);
+        if (key == 0) {
+            return Collections.emptyList();
+        }
+        List<String> list = cache.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            if ((attributes & BOLD) != 0) {
+                list.add(STYLE_CLASS_PREFIX + "bold");
+            }
+            if ((attributes & FAINT) != 0) {
+                list.add(STYLE_CLASS_PREFIX + "faint");
+            }
+            if ((attributes & ITALIC) != 0) {
+                list.add(STYLE_CLASS_PREFIX + "italic");
+            }
+            if ((attributes & UNDERLINE) != 0) {
+                list.add(STYLE_CLASS_PREFIX + "underline");
+            }
+            if ((attributes & STRIKETHROUGH) != 0) {
+                list.add(STYLE_CLASS_PREFIX + "strikethrough");
+            }
+            if (fg != DEFAULT_COLOR) {
+                list.add(colorStyleClass("fg", fg));
+            }
+            if (bg != DEFAULT_COLOR) {
+                list.add(colorStyleClass("bg", bg));
+            }
+            list = Collections.unmodifiableList(Arrays.asList(list.toArray(new String[0])));
+            cache.put(key, list);
+        }
+        return list;
+    }
+
+    private static String colorStyleClass(String ground, int color) {
+        return (color < 8) ?
+                STYLE_CLASS_PREFIX + ground + "-" + COLORS[color] :
+                STYLE_CLASS_PREFIX + ground + "-bright-" + COLORS[color - 8];
+    }
+}
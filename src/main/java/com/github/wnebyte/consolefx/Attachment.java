@@ -0,0 +1,159 @@
+package com.github.wnebyte.consolefx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * This class pumps the output and error streams of a process to a pair of {@link Printer}s on
+ * dedicated reader threads, and writes any input to the standard input stream of the process.
+ */
+final class Attachment {
+
+    private static final int BUFFER_SIZE = 65_536;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final InputStream out;
+
+    private final InputStream err;
+
+    private final OutputStream in;
+
+    private final Charset charset;
+
+    private final ExecutorService writer;
+
+    private final AtomicInteger pumps;
+
+    private final Consumer<Attachment> onDetached;
+
+    private volatile boolean detached;
+
+    Attachment(InputStream out, InputStream err, OutputStream in, Charset charset, Consumer<Attachment> onDetached) {
+        this.out = out;
+        this.err = err;
+        this.in = in;
+        this.charset = charset;
+        this.writer = (in == null) ? null : Executors.newSingleThreadExecutor(r -> newThread(r, "stdin"));
+        this.pumps = new AtomicInteger(0);
+        this.onDetached = onDetached;
+        this.detached = false;
+    }
+
+    private static Thread newThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, "console-" + name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    void start(Printer stdout, Printer stderr) {
+        if (out != null) {
+            pumps.incrementAndGet();
+            newThread(() -> pump(out, stdout), "stdout").start();
+        }
+        if (err != null) {
+            pumps.incrementAndGet();
+            newThread(() -> pump(err, stderr), "stderr").start();
+        }
+    }
+
+    /**
+     * Copies the specified <code>stream</code> to the specified <code>printer</code> in large chunks,
+     * until the end of the stream has been reached or this <code>Attachment</code> is detached.
+     * The printer is flushed whenever no more bytes are immediately available,
+     * so that a partial line, for instance a prompt, is not held back.
+     */
+    private void pump(InputStream stream, Printer printer) {
+        byte[] buf = new byte[BUFFER_SIZE];
+        try {
+            int n;
+            while (!detached && (n = stream.read(buf)) != -1) {
+                printer.write(buf, 0, n);
+                if (stream.available() == 0) {
+                    printer.flush();
+                }
+            }
+        } catch (IOException e) {
+            // the stream has been closed
+        } finally {
+            printer.flush();
+            if (pumps.decrementAndGet() == 0) {
+                detach();
+            }
+        }
+    }
+
+    /**
+     * Writes the specified <code>chars</code> and a new line to the standard input stream of the process.
+     * The encoded bytes are wiped once they have been written.
+     * @param chars to be written.
+     * @return <code>true</code> if the chars are to be written,
+     * or <code>false</code> if there is no standard input stream to write to.
+     */
+    boolean write(char[] chars) {
+        if (writer == null || detached) {
+            return false;
+        }
+        CharBuffer line = CharBuffer.allocate(chars.length + LINE_SEPARATOR.length());
+        line.put(chars).put(LINE_SEPARATOR).flip();
+        ByteBuffer bytes = charset.encode(line);
+        Arrays.fill(line.array(), '\0');
+        try {
+            writer.execute(() -> {
+                try {
+                    in.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                    in.flush();
+                } catch (IOException e) {
+                    // the process has terminated
+                } finally {
+                    Arrays.fill(bytes.array(), (byte) 0);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // detached by a reader thread since the check, as the process has terminated
+            Arrays.fill(bytes.array(), (byte) 0);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Detaches the process. Any reader thread stops once its pending read returns, and the standard input stream
+     * of the process is closed once any pending input has been written, so that the process reads its end.
+     */
+    void detach() {
+        synchronized (this) {
+            if (detached) {
+                return;
+            }
+            detached = true;
+        }
+        if (writer != null) {
+            writer.execute(() -> {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // the process has terminated
+                }
+            });
+            writer.shutdown();
+        }
+        if (onDetached != null) {
+            onDetached.accept(this);
+        }
+    }
+
+    boolean isDetached() {
+        return detached;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * This interface declares the method used by a {@link Console} to complete the user's input,
+ * upon the <code>TAB</code> key being pressed.
+ * <br/>
+ * The method is called from the <code>JavaFX Application Thread</code>; any expensive lookup should be performed
+ * asynchronously, with the returned <code>CompletionStage</code> being completed once it is done.
+ * Results that arrive after the input has changed are discarded.
+ * <br/>
+ * A completer that returns only some of the candidates should return them by way of
+ * {@link Completer#truncated(List, String)}, so that the word is never extended beyond the prefix
+ * shared by every candidate.
+ */
+@FunctionalInterface
+public interface Completer {
+
+    /**
+     * Returns the candidates for the word that ends at the specified <code>caret</code> of the specified
+     * <code>input</code>, where a word is delimited by whitespace.
+     * Each candidate is a replacement for that word.
+     * @param input the user's input, excluding the prefix.
+     * @param caret the caret's offset into the input.
+     * @return a CompletionStage that completes with the candidates.
+     */
+    CompletionStage<List<String>> complete(String input, int caret);
+
+    /**
+     * Returns an unmodifiable List of the specified <code>candidates</code>, that marks them as only some of the
+     * candidates for the word, where every candidate, including those that are not held by the List, starts with
+     * the specified <code>commonPrefix</code>.
+     * @param candidates some of the candidates.
+     * @param commonPrefix the longest prefix shared by every candidate.
+     * @return a List of the candidates.
+     */
+    static List<String> truncated(List<String> candidates, String commonPrefix) {
+        if (candidates == null || commonPrefix == null) {
+            throw new IllegalArgumentException(
+                    "The candidates and the common prefix must not be null."
+            );
+        }
+        return new TruncatedCandidates(candidates, commonPrefix);
+    }
+
+    /**
+     * Returns the start of the word that ends at the specified <code>caret</code>.
+     * @param input the user's input.
+     * @param caret the caret's offset into the input.
+     * @return the offset of the first char of the word.
+     */
+    static int wordStart(String input, int caret) {
+        int start = caret;
+        while (start > 0 && !Character.isWhitespace(input.charAt(start - 1))) {
+            start--;
+        }
+        return start;
+    }
+}
@@ -1,12 +1,40 @@
 package com.github.wnebyte.consolefx;
 
 import java.util.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CompletableFuture;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
 import java.util.function.Consumer;
-import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
+import javafx.animation.AnimationTimer;
 import javafx.scene.Node;
+import javafx.event.EventTarget;
 import javafx.scene.input.*;
 import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.css.PseudoClass;
 import javafx.scene.layout.BorderPane;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -14,16 +42,25 @@ import org.fxmisc.wellbehaved.event.Nodes;
 import org.fxmisc.wellbehaved.event.InputMap;
 import org.fxmisc.wellbehaved.event.EventPattern;
 import org.fxmisc.richtext.StyleClassedTextArea;
+import org.fxmisc.richtext.model.Paragraph;
 import org.fxmisc.richtext.model.PlainTextChange;
+import org.fxmisc.richtext.model.ReadOnlyStyledDocument;
+import org.fxmisc.richtext.model.ReadOnlyStyledDocumentBuilder;
+import org.fxmisc.richtext.model.StyledSegment;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyledDocument;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
 import org.fxmisc.richtext.model.TwoDimensional;
 import org.fxmisc.flowless.VirtualizedScrollPane;
+import org.reactfx.EventStream;
 import static javafx.scene.input.KeyCode.*;
 import static javafx.scene.input.KeyCode.DOWN;
 import static org.fxmisc.wellbehaved.event.EventPattern.*;
 import static org.fxmisc.wellbehaved.event.EventPattern.keyPressed;
 import static com.github.wnebyte.consolefx.util.Strings.*;
 import static com.github.wnebyte.consolefx.util.GUIUtils.runSafe;
-import static com.github.wnebyte.consolefx.util.Collections.toCharArray;
+import com.github.wnebyte.consolefx.util.CharArrayBuffer;
+import com.github.wnebyte.consolefx.util.SuffixMatcher;
 
 /**
  * This class represents a Java-FX Console that is styleable using CSS.
@@ -57,6 +94,18 @@ public class Console extends BorderPane {
         Nodes.addInputMap(node, InputMap.ignore(eventPattern));
     }
 
+    public static <T extends javafx.event.Event, U extends T> void addConditionalInputMap(
+            Node node,
+            EventPattern<? super T, ? extends U> eventPattern,
+            BooleanSupplier condition,
+            Consumer<? super U> action
+    ) {
+        if (node == null) {
+            return;
+        }
+        Nodes.addInputMap(node, InputMap.consumeWhen(eventPattern, condition, action));
+    }
+
     /*
     ###########################
     #      STATIC FIELDS      #
@@ -67,32 +116,204 @@ public class Console extends BorderPane {
 
     public static final String[] ERROR_STYLE_CLASSES = { ERROR_STYLE_CLASS };
 
+    private static final List<String> ERROR_STYLE_CLASS_LIST = Collections.singletonList(ERROR_STYLE_CLASS);
+
     private static final char MASK = '*';
 
     private static final String MASK_SEQUENCE = ":msk";
 
+    public static final String COMPLETION_STYLE_CLASS = "completion";
+
+    private static final int MAX_DISPLAYED_CANDIDATES = 100;
+
+    public static final String ARCHIVE_GAP_STYLE_CLASS = "archive-gap";
+
+    private static final List<String> ARCHIVE_GAP_STYLE_CLASS_LIST = Collections.singletonList(ARCHIVE_GAP_STYLE_CLASS);
+
+    public static final String SUPPRESSED_STYLE_CLASS = "suppressed";
+
+    private static final List<String> SUPPRESSED_STYLE_CLASS_LIST = Collections.singletonList(SUPPRESSED_STYLE_CLASS);
+
+    public static final String CHANNEL_PREFIX_STYLE_CLASS = "channel-prefix";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    // the number of archived paragraphs that are paged into the area at a time
+    private static final int ARCHIVE_PAGE_SIZE = 500;
+
+    // the maximum number of archived paragraphs that are held by the area at any time
+    private static final int ARCHIVE_WINDOW_SIZE = 5000;
+
+    /**
+     * The style class of the occurrences of the query of find-in-scrollback (<code>Ctrl+F</code>).
+     * Only the lines that are held by the area are searched; lines that have been removed, or appended to
+     * a {@link ScrollbackArchive}, are not.
+     */
+    public static final String FIND_MATCH_STYLE_CLASS = "find-match";
+
+    /**
+     * The style class of the current occurrence of the query of find-in-scrollback.
+     */
+    public static final String FIND_CURRENT_STYLE_CLASS = "find-current";
+
+    private static final List<String> FIND_MATCH_STYLE_CLASS_LIST = Collections.singletonList(FIND_MATCH_STYLE_CLASS);
+
+    private static final List<String> FIND_CURRENT_STYLE_CLASS_LIST =
+            Collections.unmodifiableList(Arrays.asList(FIND_MATCH_STYLE_CLASS, FIND_CURRENT_STYLE_CLASS));
+
+    private static final PseudoClass FAILED_PSEUDO_CLASS = PseudoClass.getPseudoClass("failed");
+
+    private static final String SEARCH_LABEL = "(reverse-i-search)`";
+
+    private static final String FAILED_SEARCH_LABEL = "(failed reverse-i-search)`";
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 65_536;
+
+    // the number of threads of the default executor, if virtual threads are unavailable
+    private static final int DEFAULT_POOL_SIZE = 4;
+
+    private static final long PARK_NANOS = 100_000L;
+
+    // the number of overflowing outputs per output that is queued regardless, under the SAMPLE policy
+    private static final int SAMPLE_INTERVAL = 16;
+
+    private static final StyleSegment NEWLINE = new StyleSegment(LINE_SEPARATOR_UNIX, Collections.emptyList());
+
+    private static final StyleSegment CARRIAGE_RETURN = new StyleSegment("\r", Collections.emptyList());
+
     /*
     ###########################
     #          FIELDS         #
     ###########################
     */
 
-    private final Object lock;
-
     private final StyleClassedTextArea area;
 
     private final VirtualizedScrollPane<StyleClassedTextArea> scrollPane;
 
     private final BooleanProperty suppressMask;
 
-    private final LinkedList<Character> buffer;
+    private final SuffixMatcher matcher;
+
+    private final OutputQueue queue;
+
+    private final OutputBatch batch;
+
+    private final AtomicBoolean scheduled;
+
+    private final AnimationTimer timer;
+
+    private final ConsoleMetrics metrics;
+
+    private volatile OverflowPolicy overflowPolicy;
+
+    // the number of outputs that have been dropped, and that have yet to be accounted for by a suppressed line
+    private final AtomicLong suppressed;
+
+    // the number of dropped outputs that have been taken from suppressed, but not yet written,
+    // as the current line was unfinished
+    private long unaccounted;
+
+    // the number of outputs that have overflowed under the SAMPLE policy
+    private final AtomicLong overflowed;
+
+    private volatile int maxLines;
+
+    private volatile int maxLength;
+
+    private boolean writing;
+
+    // whether output is held in the batch, rather than appended, as the user has scrolled away from the bottom
+    private boolean paused;
+
+    // a command that modifies the contents, that was polled while paused, and that is run once resumed
+    private Output deferred;
+
+    private volatile boolean followTail;
+
+    private volatile ScrollbackArchive archive;
+
+    // the range of archived paragraphs that have been paged back into the area, ahead of any other paragraph
+    private int windowStart;
+
+    private int windowEnd;
+
+    // whether the window is followed by a paragraph that stands in for the archived paragraphs that follow it
+    private boolean gap;
+
+    // whether the area is to be scrolled to the bottom in the next pulse
+    private boolean scrollRequested;
+
+    private final CharArrayBuffer buffer;
+
+    private History history;
+
+    private boolean searching;
+
+    private final StringBuilder searchQuery;
+
+    // the index of the current match, or history.size() if there is none
+    private int searchIndex;
+
+    private String searchOrigin;
 
-    private final List<String> history;
+    private Completer completer;
 
-    private int historyPointer;
+    private final DocumentIndex index;
+
+    // whether paragraphs are being removed from, or inserted ahead of, the indexed paragraphs
+    private boolean shifting;
+
+    private final HBox findBar;
+
+    private final TextField findField;
+
+    private boolean finding;
+
+    // whether the Console was paused by moving to a match, and is to be resumed once the find bar is closed
+    private boolean findPaused;
+
+    // the line and column of the current match, or -1 if there is none
+    private long findLine;
+
+    private int findColumn;
+
+    // whether the visible matches are to be highlighted in the next pulse
+    private boolean highlightRequested;
+
+    private final List<Highlight> highlights;
+
+    // the channels, where the tag of each channel is its index + 1
+    private final List<Channel> channels;
+
+    // the tag and sequence number of each line of the area that has been completed, other than the window
+    private LineTags lineTags;
+
+    // the sequence number of the next line to be completed, whether it is shown or hidden
+    private long nextSeq;
+
+    // the number of lines of the batch that have been tagged
+    private long taggedLines;
+
+    // incremented for each completion request, so that stale results are discarded
+    private int completionId;
+
+    private volatile Executor executor;
+
+    // the command that is currently running, or null if there is none
+    private Command command;
+
+    private volatile boolean cancellable;
+
+    // whether the prefix has been printed, and no input has been entered since
+    private boolean prompted;
 
     private Consumer<String> callback;
 
+    private Consumer<char[]> charCallback;
+
+    private volatile Attachment attachment;
+
     private StyleText prefix;
 
     public final Printer out;
@@ -106,13 +327,49 @@ public class Console extends BorderPane {
     */
 
     public Console() {
-        this.lock = new Object();
         this.area = new StyleClassedTextArea();
         this.scrollPane = new VirtualizedScrollPane<>(this.area);
         this.suppressMask = new SimpleBooleanProperty(true);
-        this.buffer = new LinkedList<>();
-        this.history = new ArrayList<>();
-        this.historyPointer = 0;
+        this.matcher = new SuffixMatcher(MASK_SEQUENCE);
+        this.queue = new OutputQueue(DEFAULT_QUEUE_CAPACITY);
+        this.batch = new OutputBatch(this.area);
+        this.scheduled = new AtomicBoolean(false);
+        this.metrics = new ConsoleMetrics(this.queue::size);
+        this.overflowPolicy = OverflowPolicy.BLOCK;
+        this.suppressed = new AtomicLong(0);
+        this.overflowed = new AtomicLong(0);
+        this.maxLines = 0;
+        this.maxLength = 0;
+        this.writing = false;
+        this.paused = false;
+        this.followTail = true;
+        this.scrollRequested = false;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse();
+            }
+        };
+        this.buffer = new CharArrayBuffer();
+        this.history = new History();
+        this.searching = false;
+        this.searchQuery = new StringBuilder();
+        this.executor = newDefaultExecutor();
+        this.cancellable = false;
+        this.prompted = false;
+        this.index = new DocumentIndex();
+        this.findField = new TextField();
+        this.findBar = new HBox(this.findField);
+        this.findLine = -1;
+        this.highlights = new ArrayList<>();
+        this.channels = new CopyOnWriteArrayList<>();
+        this.lineTags = new LineTags();
+        this.nextSeq = 0;
+        this.taggedLines = 0;
+        this.findField.setPromptText("Find");
+        this.findField.getStyleClass().add("find-field");
+        this.findBar.getStyleClass().add("find-bar");
+        HBox.setHgrow(this.findField, Priority.ALWAYS);
         this.out = new Out();
         this.err = new Err();
         this.area.setWrapText(true);
@@ -143,15 +400,94 @@ public class Console extends BorderPane {
         addIgnorableInputMap(this.area, mouseDragged());
         addIgnorableInputMap(this.area, keyPressed("A", KeyCodeCombination.CONTROL_DOWN));
         addIgnorableInputMap(this.area, keyPressed("Z", KeyCodeCombination.CONTROL_DOWN));
+        BooleanSupplier completing = () -> this.completer != null;
+        addConditionalInputMap(this.area, keyPressed(TAB), completing, this::onTabPressed);
+        addConditionalInputMap(this.area, keyTyped("\t"), completing, e -> {});
+        // reverse-i-search, takes precedence over the input maps above while searching
+        BooleanSupplier searching = () -> this.searching;
+        addConsumableInputMap(this.area, keyPressed("R", KeyCodeCombination.CONTROL_DOWN), this::onSearchPressed);
+        addConditionalInputMap(this.area, keyTyped(), searching, this::onSearchTyped);
+        addConditionalInputMap(this.area, keyPressed(BACK_SPACE), searching, this::onSearchBackSpacePressed);
+        addConditionalInputMap(this.area, keyPressed(ENTER), searching, this::onSearchAccepted);
+        addConditionalInputMap(this.area, keyPressed(ESCAPE), searching, e -> endSearch(false));
+        addConditionalInputMap(this.area, keyPressed("G", KeyCodeCombination.CONTROL_DOWN), searching, e -> endSearch(false));
+        addConditionalInputMap(this.area, anyOf(keyPressed(LEFT), keyPressed(RIGHT), keyPressed(UP), keyPressed(DOWN),
+                keyPressed(TAB), keyPressed("V", KeyCodeCombination.CONTROL_DOWN), mousePressed()), searching, e -> endSearch(true));
+        addConditionalInputMap(this.area, keyPressed("C", KeyCodeCombination.CONTROL_DOWN),
+                () -> this.cancellable && this.command != null, e -> cancel());
+        // find-in-scrollback
+        addConsumableInputMap(this.area, keyPressed("F", KeyCodeCombination.CONTROL_DOWN), e -> openFind());
+        addConsumableInputMap(this.findField, keyPressed(ENTER), e -> findNext(true));
+        addConsumableInputMap(this.findField, keyPressed(ENTER, KeyCodeCombination.SHIFT_DOWN), e -> findNext(false));
+        addConsumableInputMap(this.findField, keyPressed(ESCAPE), e -> closeFind());
+        this.findField.textProperty().addListener((observable, oldValue, newValue) -> onFindChanged());
+        this.area.estimatedScrollYProperty().addListener((observable, oldValue, newValue) -> {
+            if (finding) {
+                requestHighlight();
+            }
+        });
+        // user scrolls are evaluated once they have been applied to the viewport
+        this.area.addEventFilter(ScrollEvent.SCROLL, e -> Platform.runLater(this::onUserScrolled));
+        this.scrollPane.addEventFilter(MouseEvent.ANY, e -> {
+            if ((e.getEventType() == MouseEvent.MOUSE_DRAGGED || e.getEventType() == MouseEvent.MOUSE_RELEASED) &&
+                    isScrollBar(e.getTarget())) {
+                Platform.runLater(this::onUserScrolled);
+            }
+        });
         this.area.getUndoManager().close();
-        this.area.multiPlainChanges()
-                .successionEnds(Duration.ofMillis(10))
-                .subscribe(this::scan);
-        this.area.multiPlainChanges()
-                .suppressWhen(this.suppressMask)
+        // a single stream, so that the plain text of each change is computed once, rather than once per subscriber
+        EventStream<List<PlainTextChange>> changes = this.area.multiPlainChanges();
+        changes.subscribe(this::scan);
+        changes.subscribe(this::invalidate);
+        changes.suppressWhen(this.suppressMask)
                 .subscribe(this::mask);
     }
 
+    private static Executor newDefaultExecutor() {
+        try {
+            // available as of Java 21
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_POOL_SIZE, DEFAULT_POOL_SIZE,
+                    60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "console-callback");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Locks this <code>Console</code> and runs the specified <code>runnable</code> on the <code>executor</code>,
+     * and once it has completed, readies this <code>Console</code>.
+     */
+    private void run(Runnable runnable) {
+        Command command = new Command(runnable);
+        this.command = command;
+        area.setEditable(false);
+        command.getFuture().whenComplete((result, t) -> runSafe(() -> onCompleted(command, t)));
+        try {
+            executor.execute(command);
+        } catch (RuntimeException e) {
+            command.getFuture().completeExceptionally(e);
+        }
+    }
+
+    private void onCompleted(Command command, Throwable t) {
+        if (this.command != command) {
+            return;
+        }
+        this.command = null;
+        if (t instanceof CancellationException) {
+            println("^C");
+        } else if (t != null) {
+            err.println(String.valueOf(t));
+        }
+        ready();
+    }
+
     private String stripPrefix(String text) {
         if (prefix != null) {
             String line = prefix.getLastLine();
@@ -166,38 +502,395 @@ public class Console extends BorderPane {
         boolean hasContent;
         String text = area.getText(area.getCurrentParagraph());
         text = stripPrefix(text);
+        // the masked input is never turned into a String unless a String callback is used
+        char[] chars = null;
 
         // buffer is not empty
-        if (hasContent = (buffer.size() > 0)) {
-            String bufferText = new String(toCharArray(buffer));
+        if (hasContent = !buffer.isEmpty()) {
+            char[] secret = buffer.toCharArray();
             // replace mask sequence with contents of buffer, and clear buffer
-            text = replaceSequence(text, bufferText, MASK);
+            chars = replaceSequence(text, secret, MASK);
+            Arrays.fill(secret, '\0');
             buffer.clear();
         }
 
         suppressMask.setValue(true);
+        prompted = false;
         println();
 
-        if (isNotEmpty(text)) {
-            // has text
-            if (!hasContent) {
-                // buffer is empty
-                // Todo: clean up
-                history.add(text);
-                history.remove("");
-                history.add("");
-                historyPointer = history.size() - 1;
+        try {
+            Attachment attachment = this.attachment;
+            if (attachment != null && attachment.write(hasContent ? chars : text.toCharArray())) {
+                return;
+            }
+
+            if (hasContent || isNotEmpty(text)) {
+                // has text
+                if (!hasContent) {
+                    // masked input is never added to the history
+                    history.add(text);
+                } else {
+                    history.reset();
+                }
+                Consumer<char[]> charCallback = this.charCallback;
+                Consumer<String> callback = this.callback;
+                if (charCallback != null) {
+                    char[] arr = hasContent ? chars : text.toCharArray();
+                    // wiped by the command, once the callback has returned
+                    chars = null;
+                    run(() -> {
+                        try {
+                            charCallback.accept(arr);
+                        } finally {
+                            Arrays.fill(arr, '\0');
+                        }
+                    });
+                } else if (callback != null) {
+                    String input = hasContent ? new String(chars) : text;
+                    run(() -> callback.accept(input));
+                }
+            } else {
+                ready();
+            }
+        } finally {
+            if (chars != null) {
+                Arrays.fill(chars, '\0');
+            }
+        }
+    }
+
+    private void onTabPressed(KeyEvent e) {
+        requestScrollToBottom();
+        Completer completer = this.completer;
+        int paragraph = area.getCurrentParagraph();
+        int minMinor = getMinMinor();
+        int caret = area.getCaretColumn() - minMinor;
+        if (!area.isEditable() || !suppressMask.getValue() || paragraph != area.getParagraphs().size() - 1 || caret < 0) {
+            return;
+        }
+        String input = area.getText(paragraph, minMinor, paragraph, area.getParagraphLength(paragraph));
+        int id = ++completionId;
+        completer.complete(input, caret).whenComplete((candidates, ex) -> {
+            if (ex == null && candidates != null) {
+                runSafe(() -> onCompleted(id, input, caret, candidates));
+            }
+        });
+    }
+
+    /**
+     * Applies the specified <code>candidates</code> to the input, unless the input has changed since they were
+     * requested. A single candidate, or the longest common prefix of several candidates, replaces the word at the
+     * caret; otherwise the candidates are listed above the prompt line. The common prefix of truncated candidates is
+     * the one reported by the <code>Completer</code>, rather than that of the candidates that were returned.
+     */
+    private void onCompleted(int id, String input, int caret, List<String> candidates) {
+        int paragraph = area.getParagraphs().size() - 1;
+        int minMinor = getMinMinor();
+        if (id != completionId || candidates.isEmpty() || area.getCurrentParagraph() != paragraph ||
+                area.getCaretColumn() - minMinor != caret ||
+                !area.getText(paragraph, minMinor, paragraph, area.getParagraphLength(paragraph)).equals(input)) {
+            return;
+        }
+        int start = Completer.wordStart(input, caret);
+        String word = input.substring(start, caret);
+        boolean truncated = (candidates instanceof TruncatedCandidates);
+        String replacement;
+        if (truncated) {
+            replacement = ((TruncatedCandidates) candidates).getCommonPrefix();
+        } else {
+            replacement = (candidates.size() == 1) ? candidates.get(0) + WHITESPACE : commonPrefix(candidates);
+        }
+        if (replacement.length() > word.length() || (candidates.size() == 1 && !truncated)) {
+            area.replaceText(paragraph, minMinor + start, paragraph, minMinor + caret, replacement);
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        int n = Math.min(candidates.size(), MAX_DISPLAYED_CANDIDATES);
+        for (int i = 0; i < n; i++) {
+            sb.append(candidates.get(i)).append("  ");
+        }
+        if (candidates.size() > n || truncated) {
+            sb.append("...");
+        }
+        sb.append(LINE_SEPARATOR_UNIX);
+        int caretPosition = area.getCaretPosition();
+        writing = true;
+        try {
+            area.insert(area.getAbsolutePosition(paragraph, 0), ReadOnlyStyledDocument.fromString(
+                    sb.toString(),
+                    area.getInitialParagraphStyle(),
+                    Collections.singletonList(COMPLETION_STYLE_CLASS),
+                    area.getSegOps()
+            ));
+            lineTags.add(0, nextSeq++);
+        } finally {
+            writing = false;
+        }
+        area.moveTo(caretPosition + sb.length());
+        requestScrollToBottom();
+    }
+
+    private static String commonPrefix(List<String> candidates) {
+        String prefix = candidates.get(0);
+        int len = prefix.length();
+        for (int i = 1; i < candidates.size() && len > 0; i++) {
+            String candidate = candidates.get(i);
+            len = Math.min(len, candidate.length());
+            for (int j = 0; j < len; j++) {
+                if (prefix.charAt(j) != candidate.charAt(j)) {
+                    len = j;
+                    break;
+                }
             }
-            if (callback != null) {
-                callback.accept(text);
+        }
+        return prefix.substring(0, len);
+    }
+
+    private void onSearchPressed(KeyEvent e) {
+        requestScrollToBottom();
+        if (searching) {
+            // search for an older match
+            search(searchIndex);
+        } else if (area.isEditable() && suppressMask.getValue()) {
+            int paragraph = area.getCurrentParagraph();
+            searching = true;
+            searchOrigin = area.getText(paragraph, getMinMinor(), paragraph, area.getParagraphLength(paragraph));
+            searchQuery.setLength(0);
+            searchIndex = history.size();
+            renderSearch(true);
+        }
+    }
+
+    private void onSearchTyped(KeyEvent e) {
+        String c = e.getCharacter();
+        if (c.isEmpty() || Character.isISOControl(c.charAt(0)) || e.isControlDown() || e.isAltDown()) {
+            return;
+        }
+        searchQuery.append(c);
+        // the current match is searched first, as it may still match the longer query
+        search(Math.min(searchIndex + 1, history.size()));
+    }
+
+    private void onSearchBackSpacePressed(KeyEvent e) {
+        if (searchQuery.length() > 0) {
+            searchQuery.setLength(searchQuery.length() - 1);
+        }
+        search(history.size());
+    }
+
+    private void onSearchAccepted(KeyEvent e) {
+        endSearch(true);
+        onEnterPressed(e);
+    }
+
+    private void search(int before) {
+        int index = history.search(searchQuery.toString(), before);
+        if (index != -1) {
+            searchIndex = index;
+        }
+        renderSearch(index != -1 || searchQuery.length() == 0);
+    }
+
+    /**
+     * Displays the query and the current match inline, on the prompt line.
+     */
+    private void renderSearch(boolean found) {
+        String match = (searchIndex < history.size()) ? history.get(searchIndex) : "";
+        replaceInput((found ? SEARCH_LABEL : FAILED_SEARCH_LABEL) + searchQuery + "': " + match);
+    }
+
+    /**
+     * Ends the reverse-i-search, and replaces the prompt line with either the current match or
+     * the input that preceded the search.
+     */
+    private void endSearch(boolean accept) {
+        searching = false;
+        replaceInput((accept && searchIndex < history.size()) ? history.get(searchIndex) : searchOrigin);
+        searchOrigin = null;
+        history.reset();
+    }
+
+    private void replaceInput(String text) {
+        int paragraph = area.getCurrentParagraph();
+        // the text is not input to be scanned, nor masked
+        writing = true;
+        try {
+            area.replaceText(paragraph, getMinMinor(), paragraph, area.getParagraphLength(paragraph), text);
+        } finally {
+            writing = false;
+        }
+        area.moveTo(area.getLength());
+    }
+
+    private void openFind() {
+        if (!finding) {
+            finding = true;
+            super.setBottom(findBar);
+        }
+        findField.requestFocus();
+        findField.selectAll();
+    }
+
+    private void closeFind() {
+        finding = false;
+        findLine = -1;
+        clearHighlights();
+        findField.pseudoClassStateChanged(FAILED_PSEUDO_CLASS, false);
+        super.setBottom(null);
+        area.requestFocus();
+        if (findPaused) {
+            findPaused = false;
+            resume();
+        }
+    }
+
+    /**
+     * Searches for the query as it is typed, starting at the current match, so that the current match is retained
+     * for as long as it holds the query.
+     */
+    private void onFindChanged() {
+        if (!finding) {
+            return;
+        }
+        String query = findField.getText();
+        if (query.isEmpty()) {
+            findLine = -1;
+            findField.pseudoClassStateChanged(FAILED_PSEUDO_CLASS, false);
+            requestHighlight();
+            return;
+        }
+        if (findLine < index.getFirst()) {
+            find(query, Long.MAX_VALUE, Integer.MAX_VALUE, true);
+        } else {
+            find(query, findLine, findColumn, true);
+        }
+    }
+
+    /**
+     * Moves to the preceding, or following, match; wraps around once either end of the document has been reached.
+     * @param backward whether the preceding match, rather than the following match, is to be found.
+     */
+    private void findNext(boolean backward) {
+        String query = findField.getText();
+        if (query.isEmpty()) {
+            return;
+        }
+        boolean found = false;
+        if (findLine >= index.getFirst()) {
+            found = backward ? find(query, findLine, findColumn - 1, true) : find(query, findLine, findColumn + 1, false);
+        }
+        if (!found) {
+            if (backward) {
+                find(query, Long.MAX_VALUE, Integer.MAX_VALUE, true);
+            } else {
+                find(query, index.getFirst(), 0, false);
             }
+        }
+    }
+
+    /**
+     * Searches the document for the specified <code>query</code> using the <code>index</code>, and shows the match
+     * that is found, if any.
+     * The <code>Console</code> is paused, as if the user had scrolled to the match, and unless it was already paused,
+     * is resumed once the find bar is closed.
+     * @return <code>true</code> if a match was found,
+     * otherwise <code>false</code>.
+     */
+    private boolean find(String query, long line, int column, boolean backward) {
+        long found = index.search(query, line, column, backward, toLine(area.getParagraphs().size()), this::getLine);
+        findField.pseudoClassStateChanged(FAILED_PSEUDO_CLASS, found == -1);
+        if (found == -1) {
+            return false;
+        }
+        String text = getLine(found);
+        findLine = found;
+        if (backward) {
+            findColumn = lastIndexOfIgnoreCase(text, query, (found == line) ? column : text.length());
         } else {
-            ready();
+            findColumn = indexOfIgnoreCase(text, query, (found == line) ? column : 0);
+        }
+        if (!paused) {
+            paused = true;
+            findPaused = true;
+        }
+        area.showParagraphInViewport(toParagraph(found));
+        requestHighlight();
+        return true;
+    }
+
+    /**
+     * Requests the visible matches to be highlighted in the next pulse, once the viewport has been laid out.
+     */
+    private void requestHighlight() {
+        highlightRequested = true;
+        schedule();
+    }
+
+    /**
+     * Highlights the occurrences of the query in the visible paragraphs by adding a style class to their style spans.
+     * The paragraph that contains the caret is not highlighted, as it may be edited by the user.
+     */
+    private void highlight() {
+        clearHighlights();
+        String query = findField.getText();
+        if (!finding || query.isEmpty()) {
+            return;
+        }
+        area.layout();
+        int first = Math.max(area.firstVisibleParToAllParIndex(), getWindowSize());
+        int last = Math.min(area.lastVisibleParToAllParIndex(), area.getCurrentParagraph() - 1);
+        int current = (findLine < index.getFirst()) ? -1 : toParagraph(findLine);
+        for (int paragraph = first; paragraph <= last; paragraph++) {
+            String text = area.getText(paragraph);
+            int i = indexOfIgnoreCase(text, query, 0);
+            if (i == -1) {
+                continue;
+            }
+            StyleSpansBuilder<Collection<String>> builder = new StyleSpansBuilder<>();
+            int end = 0;
+            for (; i != -1; i = indexOfIgnoreCase(text, query, end)) {
+                if (end < i) {
+                    builder.add(Collections.emptyList(), i - end);
+                }
+                builder.add((paragraph == current && i == findColumn) ?
+                        FIND_CURRENT_STYLE_CLASS_LIST : FIND_MATCH_STYLE_CLASS_LIST, query.length());
+                end = i + query.length();
+            }
+            if (end < text.length()) {
+                builder.add(Collections.emptyList(), text.length() - end);
+            }
+            StyleSpans<Collection<String>> styles = area.getStyleSpans(paragraph);
+            area.setStyleSpans(paragraph, 0, styles.overlay(builder.create(), Console::concat));
+            highlights.add(new Highlight(paragraph, text, styles));
+        }
+    }
+
+    /**
+     * Restores the style spans of the highlighted paragraphs,
+     * which must not have been removed, nor shifted, since they were highlighted.
+     */
+    private void clearHighlights() {
+        for (Highlight highlight : highlights) {
+            if (highlight.paragraph < area.getParagraphs().size() &&
+                    area.getText(highlight.paragraph).equals(highlight.text)) {
+                area.setStyleSpans(highlight.paragraph, 0, highlight.styles);
+            }
         }
+        highlights.clear();
+    }
+
+    private static Collection<String> concat(Collection<String> styleClasses, Collection<String> other) {
+        if (other.isEmpty()) {
+            return styleClasses;
+        }
+        List<String> list = new ArrayList<>(styleClasses.size() + other.size());
+        list.addAll(styleClasses);
+        list.addAll(other);
+        return list;
     }
 
     private void onBackSpacePressed(KeyEvent e) {
-        scrollToBottom();
+        requestScrollToBottom();
         int minor = area.offsetToPosition(area.getCaretPosition(), TwoDimensional.Bias.Backward)
                 .getMinor();
         if (getMinMinor() < minor) {
@@ -206,7 +899,7 @@ public class Console extends BorderPane {
     }
 
     private void onLeftPressed(KeyEvent e) {
-        scrollToBottom();
+        requestScrollToBottom();
         int major = area.offsetToPosition(area.getCaretPosition(), TwoDimensional.Bias.Backward)
                 .getMajor();
         int minor = area.offsetToPosition(area.getCaretPosition(), TwoDimensional.Bias.Backward)
@@ -217,7 +910,7 @@ public class Console extends BorderPane {
     }
 
     private void onRightPressed(KeyEvent k) {
-        scrollToBottom();
+        requestScrollToBottom();
         int major = area.offsetToPosition(area.getCaretPosition(), TwoDimensional.Bias.Forward)
                 .getMajor();
         int minor = area.offsetToPosition(area.getCaretPosition(), TwoDimensional.Bias.Forward)
@@ -228,35 +921,35 @@ public class Console extends BorderPane {
     }
 
     private void onUpPressed(KeyEvent e) {
-        scrollToBottom();
-        if (historyPointer == 0) {
+        requestScrollToBottom();
+        String entry = history.previous();
+        if (entry == null) {
             return;
         }
-        historyPointer--;
         runSafe(() -> {
             area.replaceText(
                     area.getCurrentParagraph(),
                     getMinMinor(),
                     area.getCurrentParagraph(),
                     area.getParagraphLength(area.getCurrentParagraph()),
-                    history.get(historyPointer)
+                    entry
             );
         });
     }
 
     private void onDownPressed(KeyEvent e) {
-        scrollToBottom();
-        if (historyPointer >= history.size() - 1) {
+        requestScrollToBottom();
+        String entry = history.next();
+        if (entry == null) {
             return;
         }
-        historyPointer++;
         runSafe(() -> {
             area.replaceText(
                     area.getCurrentParagraph(),
                     getMinMinor(),
                     area.getCurrentParagraph(),
                     area.getParagraphLength(area.getCurrentParagraph()),
-                    history.get(historyPointer)
+                    entry
             );
         });
     }
@@ -279,7 +972,7 @@ public class Console extends BorderPane {
             String s = clipboard.getString()
                     .replace("\r\n", "")
                     .replace("\n", "");
-            print(s);
+            area.insertText(area.getCaretPosition(), s);
         }
     }
 
@@ -288,20 +981,7 @@ public class Console extends BorderPane {
      * @param text to be print.
      */
     public void print(String text) {
-        synchronized (lock) {
-            runSafe(() -> {
-                split(text).forEach(out -> {
-                    if (out.equals(LINE_SEPARATOR_UNIX)) {
-                        println();
-                    } else {
-                        area.appendText(out);
-                        int to = area.getText(area.getCurrentParagraph()).length();
-                        int from = to - out.length();
-                        area.clearStyle(area.getCurrentParagraph(), from, to);
-                    }
-                });
-            });
-        }
+        enqueue(Output.of(new StyleSegment(text, Collections.emptyList()), false));
     }
 
     /**
@@ -311,20 +991,7 @@ public class Console extends BorderPane {
      * @param styleClasses to be applied to the text.
      */
     public void print(String text, String... styleClasses) {
-        synchronized (lock) {
-            runSafe(() -> {
-                split(text).forEach(out -> {
-                    if (out.equals(LINE_SEPARATOR_UNIX)) {
-                        println();
-                    } else {
-                        area.appendText(out);
-                        int to = area.getText(area.getCurrentParagraph()).length();
-                        int from = to - out.length();
-                        area.setStyle(area.getCurrentParagraph(), from, to, Arrays.asList(styleClasses));
-                    }
-                });
-            });
-        }
+        enqueue(Output.of(new StyleSegment(text, Arrays.asList(styleClasses)), false));
     }
 
     /**
@@ -332,13 +999,7 @@ public class Console extends BorderPane {
      * @param styleText to be print.
      */
     public void print(StyleText styleText) {
-        synchronized (lock) {
-            runSafe(() -> {
-                styleText.getStyleSegments().forEach(out -> {
-                    print(out.getText(), out.getStyleClasses().toArray(new String[0]));
-                });
-            });
-        }
+        enqueue(Output.of(styleText.getStyleSegments(), false));
     }
 
     /**
@@ -346,12 +1007,7 @@ public class Console extends BorderPane {
      * @param text to be print.
      */
     public void println(String text) {
-        synchronized (lock) {
-            runSafe(() -> {
-                print(text);
-                println();
-            });
-        }
+        enqueue(Output.of(new StyleSegment(text, Collections.emptyList()), true));
     }
 
     /**
@@ -361,12 +1017,7 @@ public class Console extends BorderPane {
      * @param styleClasses to be applied to the text.
      */
     public void println(String text, String... styleClasses) {
-        synchronized (lock) {
-            runSafe(() -> {
-                print(text, styleClasses);
-                println();
-            });
-        }
+        enqueue(Output.of(new StyleSegment(text, Arrays.asList(styleClasses)), true));
     }
 
     /**
@@ -374,75 +1025,429 @@ public class Console extends BorderPane {
      * @param styleText to be print.
      */
     public void println(StyleText styleText) {
-        synchronized (lock) {
-            runSafe(() -> {
-                print(styleText);
-                println();
-            });
-        }
+        enqueue(Output.of(styleText.getStyleSegments(), true));
     }
 
     /**
-     * Prints the specified <code>text</code> using the default error styleClass and a new line
-     * at the current caret position.
-     * @param text to be print.
+     * Prints the specified <code>text</code> with the specified <code>styleClasses</code>
+     * at the current caret position, unless the output queue is full.
+     * Never blocks the calling thread, regardless of the {@link OverflowPolicy}.
+     * @param text         to be print.
+     * @param styleClasses to be applied to the text.
+     * @return <code>true</code> if the text was accepted,
+     * otherwise <code>false</code>.
      */
-    public void printerr(String text) {
-        synchronized (lock) {
-            runSafe(() -> {
-                print(text, Console.ERROR_STYLE_CLASSES);
-                println();
-            });
-        }
+    public boolean offer(String text, String... styleClasses) {
+        return submit(Output.of(new StyleSegment(text, Arrays.asList(styleClasses)), false), null, false);
     }
 
     /**
-     * Prints a new line.
+     * Prints the specified <code>text</code> with the specified <code>styleClasses</code>
+     * and a new line at the current caret position, unless the output queue is full.
+     * Never blocks the calling thread, regardless of the {@link OverflowPolicy}.
+     * @param text         to be print.
+     * @param styleClasses to be applied to the text.
+     * @return <code>true</code> if the text was accepted,
+     * otherwise <code>false</code>.
      */
-    public void println() {
-        synchronized (lock) {
-            runSafe(() -> {
-                area.appendText(System.lineSeparator());
-                area.clearStyle(area.getCurrentParagraph());
-                scrollToBottom();
-            });
-        }
+    public boolean offerln(String text, String... styleClasses) {
+        return submit(Output.of(new StyleSegment(text, Arrays.asList(styleClasses)), true), null, false);
     }
 
     /**
-     * Prints the <code>Prefix</code> if one has been specified and unlocks this <code>Console</code>.
+     * Replaces the last line of this <code>Console</code> with the specified <code>text</code>,
+     * as if it was preceded by a carriage return.
+     * Any number of rewrites that are printed within the same frame are applied as a single edit.
+     * @param text         to replace the last line with.
+     * @param styleClasses to be applied to the text.
      */
-    public void ready() {
-        synchronized (lock) {
-            runSafe(() -> {
-                if (prefix != null) {
-                    int minor = area.offsetToPosition(area.getCaretPosition(), TwoDimensional.Bias.Backward)
-                            .getMinor();
-                    if (getMinMinor() < minor) {
-                        println();
-                    }
-                    print(prefix);
-                }
-                unlock();
-            });
-        }
+    public void rewriteLine(String text, String... styleClasses) {
+        enqueue(Output.of(Arrays.asList(CARRIAGE_RETURN, new StyleSegment(text, Arrays.asList(styleClasses))), false));
     }
 
     /**
-     * Clears any text from this <code>Console</code>.
+     * Replaces the last line of this <code>Console</code> with the specified <code>StyleText</code>,
+     * as if it was preceded by a carriage return.
+     * Any number of rewrites that are printed within the same frame are applied as a single edit.
+     * @param styleText to replace the last line with.
      */
-    public void clear() {
-        synchronized (lock) {
-            runSafe(area::clear);
-        }
+    public void rewriteLine(StyleText styleText) {
+        List<StyleSegment> styleSegments = new ArrayList<>(styleText.getStyleSegments().size() + 1);
+        styleSegments.add(CARRIAGE_RETURN);
+        styleSegments.addAll(styleText.getStyleSegments());
+        enqueue(Output.of(styleSegments, false));
     }
 
     /**
-     * Clears the contents of the history.
+     * Prints the specified <code>styleSegments</code> on behalf of the specified <code>printer</code>,
+     * subject to its rate limit, if any.
+     * @param channel  the tag of the printer if it is a channel, otherwise <code>0</code>.
+     * @param blocking whether the calling thread may wait, as determined by the {@link OverflowPolicy}.
+     * @return <code>true</code> if the segments were accepted, otherwise <code>false</code>.
      */
-    public void clearHistory() {
-        history.clear();
-        historyPointer = 0;
+    private boolean print(Printer printer, int channel, List<StyleSegment> styleSegments, boolean newline,
+                          boolean blocking) {
+        return submit(Output.of(styleSegments, newline, channel), printer.getRateLimiter(), blocking);
+    }
+
+    /**
+     * Prints the specified <code>text</code> using the default error styleClass and a new line
+     * at the current caret position.
+     * @param text to be print.
+     */
+    public void printerr(String text) {
+        println(text, ERROR_STYLE_CLASSES);
+    }
+
+    /**
+     * Prints a new line.
+     */
+    public void println() {
+        enqueue(Output.of(Collections.emptyList(), true));
+    }
+
+    /**
+     * Prints the <code>Prefix</code> if one has been specified and unlocks this <code>Console</code>.
+     * The prefix is printed at most once per input, so that this method can be called any number of times;
+     * it is called once the callback has returned.
+     * <br/>
+     * Any call that follows the first call for the current input only unlocks this <code>Console</code>; it no longer
+     * prints the prefix again. The prefix is printed anew once the user has submitted their input,
+     * or this <code>Console</code> has been cleared.
+     */
+    public void ready() {
+        enqueue(Output.command(() -> {
+            if (prompted) {
+                area.setEditable(true);
+                return;
+            }
+            prompted = true;
+            if (prefix != null) {
+                int minor = area.offsetToPosition(area.getCaretPosition(), TwoDimensional.Bias.Backward)
+                        .getMinor();
+                if (getMinMinor() < minor) {
+                    write(NEWLINE);
+                }
+                prefix.getStyleSegments().forEach(this::write);
+            }
+            area.setEditable(true);
+        }));
+    }
+
+    /**
+     * Clears any text from this <code>Console</code>.
+     */
+    public void clear() {
+        enqueue(Output.command(() -> {
+            area.clear();
+            lineTags.clear();
+            for (Channel channel : channels) {
+                channel.clearHidden();
+            }
+            prompted = false;
+        }));
+    }
+
+    /**
+     * Exports the contents of this <code>Console</code> to the specified file, preceded by any lines that have been
+     * appended to its <code>ScrollbackArchive</code>.
+     * <br/>
+     * The export is of a snapshot of the contents, as they are once any output printed prior to the call has been
+     * appended, and is written on a separate thread, in constant memory. If this <code>Console</code> is paused,
+     * the snapshot is taken without waiting for it to be resumed, and excludes any output that is held.
+     * @param path   the file to export to, which is created, or truncated if it exists.
+     * @param format the format to export to.
+     * @return a future that is completed once the export has been written,
+     * or exceptionally if it could not be written.
+     */
+    public CompletableFuture<Void> export(Path path, ExportFormat format) {
+        if (path == null) {
+            throw new IllegalArgumentException(
+                    "The path must not be null."
+            );
+        }
+        if (format == null) {
+            throw new IllegalArgumentException(
+                    "The format must not be null."
+            );
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        enqueue(Output.command(() -> {
+            if (!highlights.isEmpty()) {
+                // the highlights are transient, and are never to be exported
+                clearHighlights();
+                requestHighlight();
+            }
+            // the document is immutable, and shares its structure with the area
+            StyledDocument<Collection<String>, String, Collection<String>> snapshot = area.getContent().snapshot();
+            // the archived paragraphs that are paged into the window are exported from the archive
+            int window = getWindowSize();
+            StyledDocument<Collection<String>, String, Collection<String>> document = (window == 0) ?
+                    snapshot : snapshot.subSequence(area.getAbsolutePosition(window, 0), snapshot.length());
+            ScrollbackArchive archive = this.archive;
+            int archived = (archive == null) ? 0 : archive.size();
+            Thread thread = new Thread(() -> {
+                try {
+                    export(path, format, archive, archived, document);
+                    future.complete(null);
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            }, "console-export");
+            thread.setDaemon(true);
+            thread.start();
+        }, false));
+        return future;
+    }
+
+    private static void export(Path path, ExportFormat format, ScrollbackArchive archive, int archived,
+                               StyledDocument<Collection<String>, String, Collection<String>> document)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Exporter exporter = new Exporter(channel, format);
+            exporter.begin();
+            List<List<StyledSegment<String, Collection<String>>>> page = new ArrayList<>(ARCHIVE_PAGE_SIZE);
+            for (int i = 0; i < archived; i += ARCHIVE_PAGE_SIZE) {
+                // each page is read while holding the archive, and written once it has been released,
+                // so that the archive is never held while blocked on the file
+                archive.read(i, Math.min(ARCHIVE_PAGE_SIZE, archived - i), page::add);
+                for (List<StyledSegment<String, Collection<String>>> segments : page) {
+                    exporter.paragraph(segments);
+                }
+                page.clear();
+            }
+            for (Paragraph<Collection<String>, String, Collection<String>> paragraph : document.getParagraphs()) {
+                exporter.paragraph(paragraph.getStyledSegments());
+            }
+            exporter.end();
+        }
+    }
+
+    /**
+     * Specify the maximum number of lines to be retained by this <code>Console</code>.
+     * Once exceeded, the oldest lines are removed as new output arrives.
+     * @param maxLines the maximum number of lines, or <code>0</code> if the number of lines should be unbounded.
+     */
+    public void setMaxLines(int maxLines) {
+        if (maxLines < 0) {
+            throw new IllegalArgumentException(
+                    "The maximum number of lines must not be negative."
+            );
+        }
+        this.maxLines = maxLines;
+        enqueue(Output.command(this::trimUnlessPaused, false));
+    }
+
+    /**
+     * Specify the policy to be applied to output that is printed while the output queue is full,
+     * or that exceeds the rate limit of its <code>Printer</code>.
+     * @param overflowPolicy the policy.
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException(
+                    "The overflow policy must not be null."
+            );
+        }
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * @return the policy applied to output that is printed while the output queue is full.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return the maximum number of lines to be retained by this <code>Console</code>,
+     * or <code>0</code> if the number of lines is unbounded.
+     */
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * Specify the maximum number of characters to be retained by this <code>Console</code>.
+     * Once exceeded, the oldest lines are removed as new output arrives.
+     * @param maxLength the maximum number of characters, or <code>0</code> if the number of characters
+     *                  should be unbounded.
+     */
+    public void setMaxLength(int maxLength) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException(
+                    "The maximum number of characters must not be negative."
+            );
+        }
+        this.maxLength = maxLength;
+        enqueue(Output.command(this::trimUnlessPaused, false));
+    }
+
+    /**
+     * @return the maximum number of characters to be retained by this <code>Console</code>,
+     * or <code>0</code> if the number of characters is unbounded.
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Pauses this <code>Console</code>; any output that is printed while paused is held off the document,
+     * and is appended using a single edit once resumed. The held output is bounded by the maximum number of lines
+     * and characters, or if unbounded, by the capacity of the output queue; once reached, output remains queued,
+     * subject to the {@link OverflowPolicy}, as does any output that follows a command that modifies the contents.
+     * This <code>Console</code> is also paused when the user scrolls away from the bottom.
+     */
+    public void pause() {
+        runSafe(() -> paused = true);
+    }
+
+    /**
+     * Resumes this <code>Console</code>, appending any output that was held while paused, and scrolls to the bottom.
+     * This <code>Console</code> is also resumed when the user scrolls back to the bottom, or edits the input.
+     */
+    public void resume() {
+        runSafe(() -> {
+            if (!paused) {
+                return;
+            }
+            paused = false;
+            findPaused = false;
+            Output deferred = this.deferred;
+            this.deferred = null;
+            writing = true;
+            try {
+                closeWindow();
+                batch.flush();
+                if (deferred != null) {
+                    deferred.getCommand().run();
+                }
+            } finally {
+                writing = false;
+            }
+            drain();
+            if (!queue.isEmpty()) {
+                scheduled.set(true);
+                timer.start();
+            }
+            requestScrollToBottom();
+        });
+    }
+
+    /**
+     * Specify the <code>ScrollbackArchive</code> to which the lines that are removed from this <code>Console</code>
+     * are to be appended, as either {@link Console#setMaxLines(int)} or {@link Console#setMaxLength(int)} is exceeded.
+     * <br/>
+     * When the user scrolls to the top, the archived lines are paged back in, and at most a fixed number of them are
+     * held at any time; they are removed once the user scrolls back to the bottom.
+     * Archived lines are not searched by find-in-scrollback.
+     * @param archive the archive, or <code>null</code> if removed lines should be discarded.
+     */
+    public void setScrollbackArchive(ScrollbackArchive archive) {
+        enqueue(Output.command(() -> {
+            closeWindow();
+            this.archive = archive;
+        }));
+    }
+
+    /**
+     * @return the <code>ScrollbackArchive</code> to which removed lines are appended, or <code>null</code>
+     * if there is none.
+     */
+    public ScrollbackArchive getScrollbackArchive() {
+        return archive;
+    }
+
+    /**
+     * Specify whether this <code>Console</code> should follow the tail of its output, i.e. scroll to the bottom
+     * as new lines are appended. The area is scrolled at most once per frame, after all pending output.
+     * @param value a boolean.
+     */
+    public void setFollowTail(boolean value) {
+        this.followTail = value;
+    }
+
+    /**
+     * Returns whether this <code>Console</code> follows the tail of its output.
+     * @return <code>true</code> if it follows the tail,
+     * otherwise <code>false</code>.
+     */
+    public boolean isFollowTail() {
+        return followTail;
+    }
+
+    /**
+     * Returns whether this <code>Console</code> is paused.
+     * @return <code>true</code> if it is paused,
+     * otherwise <code>false</code>.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Returns the channel of this <code>Console</code> that has the specified <code>name</code>, and creates it
+     * if there is none. A channel is a <code>Printer</code> whose lines can be hidden, and shown again, as a whole.
+     * @param name the name of the channel.
+     * @return the channel.
+     */
+    public Channel channel(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException(
+                    "The name must not be null."
+            );
+        }
+        synchronized (channels) {
+            for (Channel channel : channels) {
+                if (channel.name.equals(name)) {
+                    return channel;
+                }
+            }
+            Channel channel = new Channel(name, channels.size() + 1);
+            channels.add(channel);
+            return channel;
+        }
+    }
+
+    /**
+     * Returns the runtime metrics of the rendering pipeline of this <code>Console</code>.
+     * @return the metrics.
+     */
+    public ConsoleMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Clears the contents of the history.
+     */
+    public void clearHistory() {
+        history.clear();
+    }
+
+    /**
+     * Specify the <code>History</code> to be used by this <code>Console</code>.
+     * If the history has no error handler, any failure of its <code>HistoryStore</code> is printed to
+     * {@link Console#err}.
+     * @param history the history.
+     */
+    public void setHistory(History history) {
+        if (history == null) {
+            throw new IllegalArgumentException(
+                    "The history must not be null."
+            );
+        }
+        if (history.getErrorHandler() == null) {
+            history.setErrorHandler(e -> report("history", e));
+        }
+        this.history = history;
+    }
+
+    /**
+     * @return the <code>History</code> used by this <code>Console</code>.
+     */
+    public History getHistory() {
+        return history;
     }
 
     /**
@@ -453,441 +1458,1512 @@ public class Console extends BorderPane {
     }
 
     /**
-     * Unlocks this <code>Console</code>.
+     * Unlocks this <code>Console</code>.
+     */
+    public void unlock() {
+        runSafe(() -> area.setEditable(true));
+    }
+
+    /**
+     * Returns whether this <code>Console</code> is locked.
+     * @return <code>true</code> if it is locked,
+     * otherwise <code>false</code>.
+     */
+    public boolean isLocked() {
+        return !area.isEditable();
+    }
+
+    /**
+     * Specify whether text should wrap or not.
+     * @param value a boolean.
+     */
+    public void setWrapText(boolean value) {
+        runSafe(() -> area.setWrapText(value));
+    }
+
+    /**
+     * Returns whether this <code>Console</code>'s text is set to wrap or not.
+     * @return <code>true</code> if the text is set to wrap,
+     * otherwise <code>false</code>.
+     */
+    public boolean isWrapText() {
+        return area.isWrapText();
+    }
+
+    /**
+     * Specify a vertical <code>ScrollBarPolicy</code> for this <code>Console</code>.
+     * @param vBarPolicy a vertical ScrollBarPolicy.
+     */
+    public void setVbarPolicy(ScrollPane.ScrollBarPolicy vBarPolicy) {
+        runSafe(() -> scrollPane.setVbarPolicy(vBarPolicy));
+    }
+
+    /**
+     * @return returns the vertical <code>ScrollBarPolicy</code> used by this <code>Console</code>.
+     */
+    public ScrollPane.ScrollBarPolicy getVbarPolicy() {
+        return scrollPane.getVbarPolicy();
+    }
+
+    /**
+     * Specify a horizontal <code>ScrollBarPolicy</code> for this <code>Console</code>.
+     * @param hBarPolicy a horizontal ScrollBarPolicy.
+     */
+    public void setHbarPolicy(ScrollPane.ScrollBarPolicy hBarPolicy) {
+        runSafe(() -> scrollPane.setHbarPolicy(hBarPolicy));
+    }
+
+    /**
+     * @return returns the horizontal <code>ScrollBarPolicy</code> used by this <code>Console</code>.
+     */
+    public ScrollPane.ScrollBarPolicy getHbarPolicy() {
+        return scrollPane.getHbarPolicy();
+    }
+
+    /**
+     * @return the context menu if one exists,
+     * otherwise <code>null</code>.
+     */
+    public ContextMenu getContextMenu() {
+        return area.getContextMenu();
+    }
+
+    /**
+     * Specify a context menu to be used by this <code>Console</code>.
+     * @param contextMenu a context menu.
+     */
+    public void setContextMenu(ContextMenu contextMenu) {
+        area.setContextMenu(contextMenu);
+    }
+
+    /**
+     * Attaches the specified <code>process</code> to this <code>Console</code>.
+     * The output and error streams of the process are pumped to {@link Console#out} and {@link Console#err}
+     * on dedicated threads, and any input is written to the standard input stream of the process
+     * instead of being passed to the callback, until the process is detached.
+     * @param process to be attached.
+     */
+    public void attach(Process process) {
+        attach(process.getInputStream(), process.getErrorStream(), process.getOutputStream());
+    }
+
+    /**
+     * Attaches the specified streams to this <code>Console</code>.
+     * The specified <code>out</code> and <code>err</code> streams are pumped to {@link Console#out}
+     * and {@link Console#err} on dedicated threads, until the end of both streams has been reached,
+     * or {@link Console#detach()} is called.
+     * @param out an InputStream, or <code>null</code>.
+     * @param err an InputStream, or <code>null</code>.
+     */
+    public void attach(InputStream out, InputStream err) {
+        attach(out, err, null);
+    }
+
+    private void attach(InputStream out, InputStream err, OutputStream in) {
+        detach();
+        Attachment attachment = new Attachment(out, err, in, this.out.getCharset(), this::onDetached);
+        this.attachment = attachment;
+        attachment.start(this.out, this.err);
+    }
+
+    /**
+     * Detaches any attached process or streams from this <code>Console</code>.
+     */
+    public void detach() {
+        Attachment attachment = this.attachment;
+        if (attachment != null) {
+            attachment.detach();
+        }
+    }
+
+    private void onDetached(Attachment attachment) {
+        if (this.attachment == attachment) {
+            this.attachment = null;
+        }
+    }
+
+    /**
+     * Specify a <code>Completer</code> to be used to complete the user's input, upon the <code>TAB</code> key
+     * being pressed.
+     * @param completer a Completer, or <code>null</code> if the input should not be completed.
+     */
+    public void setCompleter(Completer completer) {
+        this.completer = completer;
+    }
+
+    /**
+     * @return the <code>Completer</code> used by this <code>Console</code>, or <code>null</code>.
+     */
+    public Completer getCompleter() {
+        return completer;
+    }
+
+    /**
+     * Specify the <code>Executor</code> on which the callback is run. By default, a virtual thread is started per
+     * callback if the runtime supports virtual threads, and otherwise a bounded pool of daemon threads is used.
+     * @param executor the executor.
+     */
+    public void setExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException(
+                    "The executor must not be null."
+            );
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * @return the <code>Executor</code> on which the callback is run.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Specify whether the running command can be cancelled by the user, using <code>Ctrl+C</code>.
+     * @param value a boolean.
+     */
+    public void setCancellable(boolean value) {
+        this.cancellable = value;
+    }
+
+    /**
+     * Returns whether the running command can be cancelled by the user.
+     * @return <code>true</code> if it can be cancelled,
+     * otherwise <code>false</code>.
+     */
+    public boolean isCancellable() {
+        return cancellable;
+    }
+
+    /**
+     * Cancels the command that is currently running, if any, and interrupts the thread that runs it.
+     * This <code>Console</code> is readied without waiting for the callback to return.
+     */
+    public void cancel() {
+        runSafe(() -> {
+            if (command != null) {
+                command.cancel();
+            }
+        });
+    }
+
+    /**
+     * Specify a <code>Consumer</code> to be called when this <code>Console</code> has new text manually appended
+     * to it. The Consumer is called on the <code>Executor</code> of this <code>Console</code>, which is locked until
+     * the Consumer has returned, or has been cancelled, and is then readied.
+     * @param callback a Consumer, or <code>null</code>.
+     */
+    public void setCallback(Consumer<String> callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Specify a <code>Consumer</code> to be called, instead of the <code>Consumer</code> specified using
+     * {@link Console#setCallback(Consumer)}, when this <code>Console</code> has new text manually appended to it.
+     * <p>
+     * The text is passed as a char array so that any masked input is never turned into an immutable
+     * <code>String</code>. The array is wiped once the Consumer returns, and has to be copied by the
+     * Consumer if it is needed afterwards.
+     * @param charCallback a Consumer, or <code>null</code>.
+     */
+    public void setCharCallback(Consumer<char[]> charCallback) {
+        this.charCallback = charCallback;
+    }
+
+    public void setPrefix(StyleText prefix) {
+        if (prefix == null || prefix.getStyleSegments().isEmpty()) {
+            throw new IllegalArgumentException(
+                    "The prefix if specified must contain at least one segment."
+            );
+        }
+        // make sure the prefix ends with a whitespace character
+        this.prefix = (prefix.getLastLine().endsWith(WHITESPACE)) ?
+                prefix : new StyleTextBuilder(prefix).whitespace().build();
+    }
+
+    /**
+     * Returns the minimum column position for the current paragraph.
+     * @return the minimum column position for the current paragraph (inclusive).
+     */
+    private int getMinMinor() {
+        if (prefix == null) {
+            return 0;
+        } else {
+            int paragraph = area.getCurrentParagraph();
+            String line = prefix.getLastLine();
+            int len = line.length();
+            // only the leading chars of the paragraph are read, rather than the whole paragraph
+            if (area.getParagraphLength(paragraph) < len) {
+                return 0;
+            }
+            return area.getText(paragraph, 0, paragraph, len).equals(line) ? len : 0;
+        }
+    }
+
+    /**
+     * Feeds any text appended by the user to the class scoped <code>matcher</code>, and if the current paragraph
+     * ends with a {@link Console#MASK_SEQUENCE} occurrence, deletes the occurrence and sets the
+     * class scoped <code>suppressMask</code> property to <code>false</code> to init masking.
+     * <br/>
+     * Text appended to the end of the document is fed incrementally, whereas any other change resyncs
+     * the matcher from at most the last <code>MASK_SEQUENCE.length()</code> chars of the user's input.
+     */
+    private void scan(List<PlainTextChange> changes) {
+        // ignore any changes made by the console itself
+        if (writing) {
+            matcher.reset();
+            return;
+        }
+        // already masking
+        if (!suppressMask.getValue()) {
+            return;
+        }
+        boolean matches = false;
+        for (PlainTextChange change : changes) {
+            String inserted = change.getInserted();
+            if (change.getRemoved().isEmpty() &&
+                    change.getPosition() + inserted.length() == area.getLength()) {
+                int start = inserted.lastIndexOf(LINE_SEPARATOR_UNIX);
+                if (start != -1) {
+                    matcher.reset();
+                }
+                matches = matcher.feed(inserted.substring(start + 1));
+            } else {
+                matches = resync();
+            }
+        }
+        if (matches) {
+            matcher.reset();
+            Platform.runLater(this::onMaskSequence);
+        }
+    }
+
+    private boolean resync() {
+        int paragraph = area.getCurrentParagraph();
+        int len = area.getParagraphLength(paragraph);
+        int start = Math.max(getMinMinor(), len - matcher.length());
+        matcher.reset();
+        return matcher.feed(area.getText(paragraph, start, paragraph, len));
+    }
+
+    private void onMaskSequence() {
+        int paragraph = area.getCurrentParagraph();
+        int len = area.getParagraphLength(paragraph);
+        int start = len - MASK_SEQUENCE.length();
+        // the document may have changed since the occurrence was found
+        if (!suppressMask.getValue() || start < getMinMinor() ||
+                !area.getText(paragraph, start, paragraph, len).equals(MASK_SEQUENCE)) {
+            return;
+        }
+        area.deleteText(paragraph, start, paragraph, len);
+        suppressMask.setValue(false);
+    }
+
+    /**
+     * Discards the chunks of the <code>index</code> that hold a changed paragraph.
+     */
+    private void invalidate(List<PlainTextChange> changes) {
+        if (shifting) {
+            return;
+        }
+        int position = area.getLength();
+        for (PlainTextChange change : changes) {
+            position = Math.min(position, change.getPosition());
+        }
+        int paragraph = area.offsetToPosition(position, TwoDimensional.Bias.Backward).getMajor();
+        index.invalidate(toLine(Math.max(paragraph, getWindowSize())));
+    }
+
+    /**
+     * @return the number of paragraphs that precede the indexed paragraphs, i.e. the window of archived paragraphs,
+     * and the gap if there is one.
+     */
+    private int getWindowSize() {
+        return windowEnd - windowStart + (gap ? 1 : 0);
+    }
+
+    private long toLine(int paragraph) {
+        return index.getFirst() + paragraph - getWindowSize();
+    }
+
+    private int toParagraph(long line) {
+        return (int) (line - index.getFirst()) + getWindowSize();
+    }
+
+    private String getLine(long line) {
+        return area.getText(toParagraph(line));
+    }
+
+    /**
+     * Replaces any appended text with the {@linkplain Console#MASK} char,
+     * and appends the appended text to {@link Console#buffer}.
+     */
+    private void mask(List<PlainTextChange> changes) {
+        // ignore any changes made by the console itself
+        if (writing) {
+            return;
+        }
+        for (PlainTextChange change : changes) {
+            String inserted = change.getInserted();
+            String removed = change.getRemoved();
+
+            if ((inserted.length() != 0) && (removed.length() != 0)) {
+                continue;
+            }
+            if (inserted.length() > 0) {
+                buffer.append(inserted);
+                area.replaceText(
+                        change.getPosition(),
+                        change.getInsertionEnd(),
+                        String.valueOf(MASK)
+                );
+            }
+            if (removed.length() > 0) {
+                buffer.removeLast(removed.length());
+            }
+        }
+    }
+
+    /**
+     * Queues the specified <code>output</code> and schedules a drain of the queue.
+     * A command is never dropped: if the queue is full, the calling thread waits until the queue has been drained,
+     * unless it is the <code>JavaFX Application Thread</code>, in which case the queue is drained immediately.
+     * Any other output is subject to the {@link OverflowPolicy}.
+     */
+    private void enqueue(Output output) {
+        if (!output.isCommand()) {
+            submit(output, null, true);
+            return;
+        }
+        metrics.onEnqueued();
+        await(output);
+        schedule();
+    }
+
+    /**
+     * Queues the specified <code>output</code>, subject to the specified <code>rateLimiter</code>, if any,
+     * and to the {@link OverflowPolicy}, and schedules a drain of the queue.
+     * @param blocking whether the output is printed, rather than offered; output that is offered is never dropped,
+     *                 nor waited for, but rejected.
+     * @return <code>true</code> if the output was queued, otherwise <code>false</code>.
+     */
+    private boolean submit(Output output, RateLimiter rateLimiter, boolean blocking) {
+        OverflowPolicy policy = overflowPolicy;
+        if (rateLimiter != null) {
+            long nanos;
+            while ((nanos = rateLimiter.tryAcquire()) != 0) {
+                if (!blocking) {
+                    return false;
+                }
+                if (policy != OverflowPolicy.BLOCK) {
+                    suppress();
+                    return false;
+                }
+                if (Platform.isFxApplicationThread()) {
+                    break;
+                }
+                LockSupport.parkNanos(nanos);
+            }
+        }
+        int capacity = queue.getCapacity();
+        if (suppressed.get() != 0 && queue.size() < capacity) {
+            // accounts for the dropped outputs ahead of the first output that follows them
+            long n = suppressed.getAndSet(0);
+            if (n != 0) {
+                metrics.onEnqueued();
+                queue.offer(Output.command(() -> writeSuppressed(n), false), Integer.MAX_VALUE);
+            }
+        }
+        boolean queued;
+        switch (policy) {
+            case DROP_OLDEST:
+                // the consumer drops the outputs in excess of the capacity; the limit bounds the memory held
+                queued = queue.offer(output, capacity * 2);
+                break;
+            case SAMPLE:
+                queued = queue.offer(output) ||
+                        (overflowed.getAndIncrement() % SAMPLE_INTERVAL == 0 && queue.offer(output, capacity * 2));
+                break;
+            case BLOCK:
+                if (blocking) {
+                    await(output);
+                    queued = true;
+                } else {
+                    queued = queue.offer(output);
+                }
+                break;
+            default:
+                queued = queue.offer(output);
+        }
+        if (queued) {
+            metrics.onEnqueued();
+        } else if (blocking) {
+            suppress();
+        }
+        schedule();
+        return queued;
+    }
+
+    /**
+     * Queues the specified <code>output</code>, waiting until the queue has been drained if it is full.
+     */
+    private void await(Output output) {
+        while (!queue.offer(output)) {
+            if (Platform.isFxApplicationThread()) {
+                drain();
+            } else {
+                schedule();
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Records an output that has been dropped by a producer.
+     */
+    private void suppress() {
+        suppressed.incrementAndGet();
+        metrics.onDropped(1);
+    }
+
+    /**
+     * Prints the specified <code>exception</code>, thrown by the specified <code>source</code>, to {@link Console#err}
+     * without waiting, so that it may be called from any thread, including from within a drain.
+     */
+    private void report(String source, Exception exception) {
+        err.offerln(source + ": " + exception);
+    }
+
+    private static StyleSegment getSuppressedSegment(long n) {
+        return new StyleSegment(n + ((n == 1) ? " output suppressed" : " outputs suppressed"),
+                SUPPRESSED_STYLE_CLASS_LIST);
+    }
+
+    private static boolean isScrollBar(EventTarget target) {
+        Node node = (target instanceof Node) ? (Node) target : null;
+        while (node != null && !(node instanceof ScrollBar)) {
+            node = node.getParent();
+        }
+        return node != null;
+    }
+
+    /**
+     * Pauses this <code>Console</code> when the user has scrolled away from the bottom, and resumes it
+     * when the user has scrolled back to the bottom.
+     * While paused, archived lines are paged in as the user scrolls to either end of the window.
+     */
+    private void onUserScrolled() {
+        boolean atBottom = area.getEstimatedScrollY() + area.getViewportHeight() >=
+                area.getTotalHeightEstimate() - 1.0;
+        if (!atBottom) {
+            paused = true;
+            if (archive != null) {
+                writing = true;
+                try {
+                    if (area.getEstimatedScrollY() <= 1.0) {
+                        pageBack();
+                    } else if (gap && windowEnd - windowStart <= area.lastVisibleParToAllParIndex()) {
+                        pageForward();
+                    }
+                } catch (IOException e) {
+                    // detached, so that the user can continue to scroll
+                    this.archive = null;
+                    closeWindow();
+                    report("scrollback archive", e);
+                } finally {
+                    writing = false;
+                }
+            }
+        } else if (paused) {
+            resume();
+        }
+    }
+
+    /**
+     * Pages the archived paragraphs that precede the window into the top of the <code>area</code>.
+     * If the window becomes too large, its newest paragraphs are replaced with a gap.
+     */
+    private void pageBack() throws IOException {
+        if (windowStart == windowEnd && !gap) {
+            windowStart = windowEnd = archive.size();
+        }
+        int count = Math.min(ARCHIVE_PAGE_SIZE, windowStart);
+        if (count == 0) {
+            return;
+        }
+        replaceWindow(0, 0, readArchive(windowStart - count, count, false));
+        windowStart -= count;
+        int size = windowEnd - windowStart;
+        if (ARCHIVE_WINDOW_SIZE < size) {
+            int excess = size - ARCHIVE_WINDOW_SIZE;
+            windowEnd -= excess;
+            replaceWindow(size - excess, size + (gap ? 1 : 0), readArchive(windowEnd, 0, true));
+            gap = true;
+        }
+        // the paragraph that was at the top remains at the top
+        area.showParagraphAtTop(count);
+    }
+
+    /**
+     * Pages the archived paragraphs that follow the window into the <code>area</code>, in place of the gap.
+     * If the window becomes too large, its oldest paragraphs are removed.
+     */
+    private void pageForward() throws IOException {
+        int size = windowEnd - windowStart;
+        int count = Math.min(ARCHIVE_PAGE_SIZE, archive.size() - windowEnd);
+        boolean gap = windowEnd + count < archive.size();
+        replaceWindow(size, size + 1, readArchive(windowEnd, count, gap));
+        windowEnd += count;
+        this.gap = gap;
+        int excess = Math.max(0, windowEnd - windowStart - ARCHIVE_WINDOW_SIZE);
+        if (0 < excess) {
+            replaceWindow(0, excess, null);
+            windowStart += excess;
+        }
+        // the first paragraph that was paged in takes the place of the gap
+        area.showParagraphAtBottom(size - excess);
+    }
+
+    /**
+     * Removes the window, and the gap if there is one, from the <code>area</code>.
+     */
+    private void closeWindow() {
+        int size = getWindowSize();
+        if (0 < size) {
+            replaceWindow(0, size, null);
+        }
+        windowStart = windowEnd = 0;
+        gap = false;
+    }
+
+    /**
+     * Replaces the paragraphs of the <code>area</code> in the range [<code>from</code>, <code>to</code>) with the
+     * specified <code>document</code>, which must end with an empty paragraph, and retains the selection.
+     * The paragraphs must precede the paragraph that contains the caret.
+     */
+    private void replaceWindow(int from, int to, ReadOnlyStyledDocument<Collection<String>, String,
+            Collection<String>> document) {
+        clearHighlights();
+        int start = area.getAbsolutePosition(from, 0);
+        int end = area.getAbsolutePosition(to, 0);
+        int anchor = area.getAnchor();
+        int caret = area.getCaretPosition();
+        int delta = start - end;
+        shifting = true;
+        try {
+            if (document == null) {
+                area.deleteText(start, end);
+            } else {
+                area.replace(start, end, document);
+                delta += document.length();
+            }
+        } finally {
+            shifting = false;
+        }
+        area.selectRange(anchor + delta, caret + delta);
+    }
+
+    /**
+     * Reads <code>count</code> archived paragraphs into a document that ends with an empty paragraph,
+     * so that it can be inserted ahead of a paragraph of the <code>area</code>.
+     * @param gap whether a gap that stands in for the archived paragraphs that follow is to be included.
      */
-    public void unlock() {
-        runSafe(() -> area.setEditable(true));
+    private ReadOnlyStyledDocument<Collection<String>, String, Collection<String>> readArchive(
+            int from, int count, boolean gap) throws IOException {
+        ReadOnlyStyledDocumentBuilder<Collection<String>, String, Collection<String>> builder =
+                new ReadOnlyStyledDocumentBuilder<>(area.getSegOps(), area.getInitialParagraphStyle());
+        archive.read(from, count, builder::addParagraph);
+        if (gap) {
+            int n = archive.size() - (from + count);
+            builder.addParagraph("... " + n + ((n == 1) ? " archived line" : " archived lines") + " ...",
+                    ARCHIVE_GAP_STYLE_CLASS_LIST);
+        }
+        builder.addParagraph("", area.getInitialTextStyle());
+        return builder.build();
     }
 
     /**
-     * Returns whether this <code>Console</code> is locked.
-     * @return <code>true</code> if it is locked,
-     * otherwise <code>false</code>.
+     * Blocks the calling thread until all output enqueued before the call has been appended to the area,
+     * or held, if this <code>Console</code> is paused.
+     * Intended for benchmarks and tests; must not be called from the <code>JavaFX Application Thread</code>.
+     * If this <code>Console</code> is paused, and a command that modifies its contents has been deferred, or the
+     * held output has reached its limit, does not return until it has been resumed.
      */
-    public boolean isLocked() {
-        return area.isEditable();
+    void awaitDrained() throws InterruptedException {
+        if (Platform.isFxApplicationThread()) {
+            throw new IllegalStateException(
+                    "Must not be called from the JavaFX Application Thread."
+            );
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        enqueue(Output.command(latch::countDown, false));
+        latch.await();
     }
 
     /**
-     * Specify whether text should wrap or not.
-     * @param value a boolean.
+     * Starts the <code>timer</code> unless it has already been started.
      */
-    public void setWrapText(boolean value) {
-        runSafe(() -> area.setWrapText(value));
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            runSafe(timer::start);
+        }
     }
 
     /**
-     * Returns whether this <code>Console</code>'s text is set to wrap or not.
-     * @return <code>true</code> if the text is set to wrap,
-     * otherwise <code>false</code>.
+     * Drains the queue once per pulse, scrolls to the bottom if requested,
+     * and stops the <code>timer</code> once the queue is empty.
      */
-    public boolean isWrapText() {
-        return area.isWrapText();
+    private void onPulse() {
+        drain();
+        if (!paused) {
+            index.update(toLine(area.getParagraphs().size() - 1), this::getLine);
+        }
+        if (scrollRequested) {
+            // at most one scroll per pulse, once all pending output has been appended
+            scrollRequested = false;
+            area.scrollYBy(Double.MAX_VALUE);
+        }
+        if (highlightRequested) {
+            highlightRequested = false;
+            highlight();
+        }
+        if (deferred != null || isHoldingLimit()) {
+            // the flag is left set, so that producers do not restart the timer until resumed
+            timer.stop();
+        } else if (queue.isEmpty()) {
+            scheduled.set(false);
+            // a producer may have offered between the drain and the reset of the flag
+            if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                timer.stop();
+            }
+        }
     }
 
     /**
-     * Specify a vertical <code>ScrollBarPolicy</code> for this <code>Console</code>.
-     * @param vBarPolicy a vertical ScrollBarPolicy.
+     * Applies the <code>Output</code>s that are currently queued to the <code>area</code>,
+     * using a single edit for every uninterrupted sequence of text.
      */
-    public void setVbarPolicy(ScrollPane.ScrollBarPolicy vBarPolicy) {
-        runSafe(() -> scrollPane.setVbarPolicy(vBarPolicy));
+    private void drain() {
+        long start = System.nanoTime();
+        if (!highlights.isEmpty() && !paused && !queue.isEmpty()) {
+            // the highlights are transient, and are never to be trimmed, nor archived
+            clearHighlights();
+            requestHighlight();
+        }
+        writing = true;
+        boolean newline = false;
+        int polled = 0;
+        try {
+            // the number of the oldest outputs to be dropped, and the number of text outputs dropped so far
+            int excess = (overflowPolicy == OverflowPolicy.DROP_OLDEST) ? queue.size() - queue.getCapacity() : 0;
+            int dropped = 0;
+            for (int n = queue.size(); n > 0 && deferred == null && !isHoldingLimit(); n--, polled++) {
+                Output output = queue.poll();
+                if (output == null) {
+                    break;
+                }
+                if (excess > 0 && !output.isCommand()) {
+                    excess--;
+                    dropped++;
+                    continue;
+                }
+                excess--;
+                if (dropped != 0) {
+                    metrics.onDropped(dropped);
+                    writeSuppressed(dropped);
+                    dropped = 0;
+                }
+                if (output.isCommand()) {
+                    if (paused && output.isModifying()) {
+                        // a command may depend on the preceding output having been appended
+                        deferred = output;
+                        break;
+                    }
+                    if (!paused) {
+                        newline |= batch.flush();
+                    }
+                    output.getCommand().run();
+                } else {
+                    Channel channel = (output.getChannel() == 0) ? null : channels.get(output.getChannel() - 1);
+                    if (channel != null && !channel.shown) {
+                        hide(channel, output);
+                        continue;
+                    }
+                    output.getStyleSegments().forEach(this::write);
+                    if (output.isNewline()) {
+                        write(NEWLINE);
+                    }
+                    tagLines(output.getChannel());
+                    if (unaccounted != 0) {
+                        writeSuppressed(0);
+                    }
+                }
+            }
+            if (dropped != 0) {
+                metrics.onDropped(dropped);
+                writeSuppressed(dropped);
+            }
+            if (suppressed.get() != 0 && queue.isEmpty() && deferred == null) {
+                // no output has followed the dropped outputs
+                long n = suppressed.getAndSet(0);
+                if (n != 0) {
+                    writeSuppressed(n);
+                }
+            }
+            if (!paused) {
+                newline |= batch.flush();
+                trim();
+            }
+        } finally {
+            writing = false;
+        }
+        if (newline && followTail) {
+            scrollRequested = true;
+        }
+        if (polled > 0) {
+            metrics.onBatch(System.nanoTime() - start, batch.getLines(), batch.getChars(),
+                    area.getParagraphs().size(), area.getLength());
+        }
     }
 
     /**
-     * @return returns the vertical <code>ScrollBarPolicy</code> used by this <code>Console</code>.
+     * Returns whether the output held while paused has reached {@link Console#maxLines} or
+     * {@link Console#maxLength}, or if there are no such limits, the capacity of the queue;
+     * no more output is polled until resumed, so that the held output is bounded, and producers are subject to
+     * the {@link OverflowPolicy}.
      */
-    public ScrollPane.ScrollBarPolicy getVbarPolicy() {
-        return scrollPane.getVbarPolicy();
+    private boolean isHoldingLimit() {
+        if (!paused) {
+            return false;
+        }
+        int maxLines = this.maxLines;
+        int maxLength = this.maxLength;
+        return ((maxLines != 0) ? maxLines : queue.getCapacity()) <= batch.getPendingLines() ||
+                (maxLength != 0 && maxLength <= batch.getPendingChars());
     }
 
     /**
-     * Specify a horizontal <code>ScrollBarPolicy</code> for this <code>Console</code>.
-     * @param hBarPolicy a horizontal ScrollBarPolicy.
+     * Trims the <code>area</code> unless paused, in which case it is trimmed once resumed.
      */
-    public void setHbarPolicy(ScrollPane.ScrollBarPolicy hBarPolicy) {
-        runSafe(() -> scrollPane.setHbarPolicy(hBarPolicy));
+    private void trimUnlessPaused() {
+        if (!paused) {
+            trim();
+        }
     }
 
     /**
-     * @return returns the horizontal <code>ScrollBarPolicy</code> used by this <code>Console</code>.
+     * Removes the oldest paragraphs from the <code>area</code> using a single edit, until neither
+     * {@link Console#maxLines} nor {@link Console#maxLength} is exceeded, along with any hidden line that was printed
+     * before the first paragraph that is retained; the lines are archived in the order they were printed, whether
+     * they are shown or hidden.
+     * The hidden lines of each channel are then capped at <code>maxLines</code> on their own, so that a hidden channel
+     * never causes shown lines to be removed; the excess hidden lines are discarded, as they were printed after
+     * lines that have yet to be archived.
+     * The paragraph that contains the caret, and any paragraph that follows it, is never removed.
      */
-    public ScrollPane.ScrollBarPolicy getHbarPolicy() {
-        return scrollPane.getHbarPolicy();
+    private void trim() {
+        int maxLines = this.maxLines;
+        int maxLength = this.maxLength;
+        if (maxLines == 0 && maxLength == 0) {
+            return;
+        }
+        int paragraphs = area.getParagraphs().size();
+        int n = (maxLines == 0) ? 0 : Math.max(0, paragraphs - maxLines);
+        int end = (n == 0) ? 0 : area.getAbsolutePosition(n, 0);
+        if (maxLength != 0) {
+            int length = area.getLength();
+            while (n < paragraphs - 1 && maxLength < length - end) {
+                end += area.getParagraphLength(n++) + 1;
+            }
+        }
+        n = Math.min(n, area.getCurrentParagraph());
+        boolean excess = false;
+        for (Channel channel : channels) {
+            excess |= (maxLines != 0 && maxLines < channel.hiddenCount);
+        }
+        if (n == 0 && !excess) {
+            return;
+        }
+        end = area.getAbsolutePosition(n, 0);
+        // any hidden line that precedes the first line that is retained is removed along with the trimmed lines
+        long bound = (n < lineTags.size()) ? lineTags.getSeq(n) : nextSeq;
+        ScrollbackArchive archive = this.archive;
+        if (archive != null) {
+            // the area holds no window, as the console is never trimmed while paused
+            try {
+                archive(archive, n, bound);
+            } catch (IOException e) {
+                // detached, so that output continues to be trimmed; the lines that were not archived are discarded
+                this.archive = null;
+                report("scrollback archive", e);
+            }
+        }
+        for (Channel channel : channels) {
+            int removed = channel.removeHidden(bound);
+            if (maxLines != 0 && maxLines < channel.hiddenCount) {
+                removed += channel.removeHidden(channel.hiddenSeqs[channel.hiddenCount - maxLines]);
+            }
+            metrics.onEvicted(removed);
+        }
+        if (n == 0) {
+            return;
+        }
+        if (!highlights.isEmpty()) {
+            clearHighlights();
+            requestHighlight();
+        }
+        int anchor = area.getAnchor();
+        int caret = area.getCaretPosition();
+        shifting = true;
+        try {
+            area.deleteText(0, end);
+        } finally {
+            shifting = false;
+        }
+        index.removeFirst(n);
+        lineTags.removeFirst(n);
+        metrics.onEvicted(n);
+        area.selectRange(Math.max(0, anchor - end), Math.max(0, caret - end));
     }
 
     /**
-     * @return the context menu if one exists,
-     * otherwise <code>null</code>.
+     * Appends a line that accounts for the specified number of dropped outputs, together with any dropped outputs
+     * that have yet to be accounted for, to the current batch. If the current line is unfinished, the line is
+     * appended once it has been completed, so that it never splits a line.
      */
-    public ContextMenu getContextMenu() {
-        return area.getContextMenu();
+    private void writeSuppressed(long n) {
+        unaccounted += n;
+        if (unaccounted == 0 || !batch.isLineStart()) {
+            return;
+        }
+        write(getSuppressedSegment(unaccounted));
+        write(NEWLINE);
+        tagLines(0);
+        unaccounted = 0;
     }
 
     /**
-     * Specify a context menu to be used by this <code>Console</code>.
-     * @param contextMenu a context menu.
+     * Tags the lines that have been completed by the current batch, but not yet tagged, with the specified tag.
      */
-    public void setContextMenu(ContextMenu contextMenu) {
-        area.setContextMenu(contextMenu);
+    private void tagLines(int tag) {
+        for (long n = batch.getLines() - taggedLines; n > 0; n--) {
+            lineTags.add(tag, nextSeq++);
+        }
+        taggedLines = batch.getLines();
     }
 
     /**
-     * Specify a <code>Consumer</code> to be called when this <code>Console</code> has new text manually appended to it.
-     * @param callback a Consumer.
+     * Appends the first <code>n</code> paragraphs of the <code>area</code> to the specified <code>archive</code>,
+     * together with any hidden line whose sequence number is less than the specified <code>bound</code>,
+     * in the order they were printed.
      */
-    public void setCallback(Consumer<String> callback) {
-        this.callback = callback;
-    }
-
-    public void setPrefix(StyleText prefix) {
-        if (prefix == null || prefix.getStyleSegments().isEmpty()) {
-            throw new IllegalArgumentException(
-                    "The prefix if specified must contain at least one segment."
-            );
+    private void archive(ScrollbackArchive archive, int n, long bound) throws IOException {
+        int[] positions = new int[channels.size()];
+        int i = 0;
+        while (true) {
+            long seq = (i < n && i < lineTags.size()) ? lineTags.getSeq(i) : Long.MAX_VALUE;
+            Channel next = null;
+            for (Channel channel : channels) {
+                int position = positions[channel.tag - 1];
+                if (position < channel.hiddenCount && channel.hiddenSeqs[position] < Math.min(seq, bound)) {
+                    seq = channel.hiddenSeqs[position];
+                    next = channel;
+                }
+            }
+            if (next != null) {
+                archive.append(next.hidden.get(positions[next.tag - 1]++));
+            } else if (i < n) {
+                archive.append(area.getParagraph(i++));
+            } else {
+                return;
+            }
         }
-        // make sure the prefix ends with a whitespace character
-        this.prefix = (prefix.getLastLine().endsWith(WHITESPACE)) ?
-                prefix : new StyleTextBuilder(prefix).whitespace().build();
     }
 
     /**
-     * Returns the minimum column position for the current paragraph.
-     * @return the minimum column position for the current paragraph (inclusive).
+     * Appends the specified <code>output</code> to the hidden lines of the specified <code>channel</code>,
+     * rather than to the current batch.
      */
-    private int getMinMinor() {
-        if (prefix == null) {
-            return 0;
-        } else {
-            String text = area.getText(area.getCurrentParagraph());
-            String line = prefix.getLastLine();
-            return text.startsWith(line) ? line.length() : 0;
+    private void hide(Channel channel, Output output) {
+        for (StyleSegment styleSegment : output.getStyleSegments()) {
+            String text = styleSegment.getText();
+            int start = 0;
+            int end;
+            while ((end = text.indexOf(LINE_SEPARATOR_UNIX, start)) != -1) {
+                channel.appendHidden(text.substring(start, end), styleSegment.getStyleClasses());
+                completeHidden(channel);
+                start = end + 1;
+            }
+            if (start < text.length()) {
+                channel.appendHidden((start == 0) ? text : text.substring(start), styleSegment.getStyleClasses());
+            }
+        }
+        if (output.isNewline()) {
+            completeHidden(channel);
         }
     }
 
     /**
-     * Scans the tail of the text from the current paragraph for {@link Console#MASK_SEQUENCE} occurrence,
-     * if found deletes the occurrence and sets the class scoped <code>noMask</code> property to <code>false</code>
-     * to init masking.
+     * Completes the current hidden line of the specified <code>channel</code>.
      */
-    private void scan(List<PlainTextChange> changes) {
-        String text = area.getText(area.getCurrentParagraph());
-        int len = text.length();
-        if (text.endsWith(MASK_SEQUENCE)) {
-            suppressMask.setValue(false);
-            area.deleteText(
-                    area.getCurrentParagraph(),
-                    Math.max(getMinMinor(), len - MASK_SEQUENCE.length()),
-                    area.getCurrentParagraph(),
-                    len
-            );
+    private void completeHidden(Channel channel) {
+        List<StyledSegment<String, Collection<String>>> segments = channel.pending;
+        if (segments.isEmpty()) {
+            segments.add(new StyledSegment<>("", area.getInitialTextStyle()));
         }
+        channel.addHidden(new Paragraph<>(area.getInitialParagraphStyle(), area.getSegOps(), segments), nextSeq++);
+        channel.pending = new ArrayList<>();
     }
 
     /**
-     * Replaces any appended text with the {@linkplain Console#MASK} char,
-     * and pushes the appended text onto {@link Console#buffer}.
+     * Shows or hides the lines of the specified <code>channel</code>, by rebuilding the completed lines of the
+     * <code>area</code> from the tags of its lines, and from the hidden lines of the channel, in a single edit.
+     * Only the lines that follow the first line to be shown, or hidden, are rebuilt; the cost is proportional to
+     * the number of those lines, rather than to the number of lines of the channel. The rebuilt lines are not
+     * limited to the viewport, as the area holds every line that is shown.
+     * The lines of the channel that are hidden are retained by the channel, until they are shown, or trimmed.
      */
-    private void mask(List<PlainTextChange> changes) {
-        for (PlainTextChange change : changes) {
-            String inserted = change.getInserted();
-            String removed = change.getRemoved();
-
-            if ((inserted.length() != 0) && (removed.length() != 0)) {
-                continue;
+    private void setVisible(Channel channel, boolean visible) {
+        if (channel.shown == visible) {
+            return;
+        }
+        channel.shown = visible;
+        int window = getWindowSize();
+        int n = Math.min(lineTags.size(), area.getParagraphs().size() - window - 1);
+        // the first line to be rebuilt, and the number of lines to be hidden
+        int first = n;
+        int count = 0;
+        if (visible) {
+            // the current hidden line, if any, is continued by the text that the channel prints next
+            for (StyledSegment<String, Collection<String>> segment : channel.pending) {
+                batch.append(segment.getSegment(), segment.getStyle());
             }
-            if (inserted.length() > 0) {
-                char[] arr = inserted.toCharArray();
-                for (char c : arr) {
-                    buffer.add(c);
+            channel.pending.clear();
+            if (channel.hiddenCount == 0) {
+                return;
+            }
+            long seq = channel.hiddenSeqs[0];
+            first = 0;
+            while (first < n && lineTags.getSeq(first) < seq) {
+                first++;
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (lineTags.getTag(i) == channel.tag && count++ == 0) {
+                    first = i;
                 }
-                area.replaceText(
-                        change.getPosition(),
-                        change.getInsertionEnd(),
-                        String.valueOf(MASK)
-                );
             }
-            if (removed.length() > 0) {
-                if (!buffer.isEmpty()) {
-                    for (int i = 0; i < removed.length(); i++) {
-                        buffer.removeLast();
-                    }
+            if (count == 0) {
+                return;
+            }
+        }
+        clearHighlights();
+        int size = visible ? n + channel.hiddenCount : n - count;
+        ReadOnlyStyledDocumentBuilder<Collection<String>, String, Collection<String>> builder =
+                new ReadOnlyStyledDocumentBuilder<>(area.getSegOps(), area.getInitialParagraphStyle(),
+                        size - first + 1);
+        LineTags tags = new LineTags(size);
+        for (int i = 0; i < first; i++) {
+            tags.add(lineTags.getTag(i), lineTags.getSeq(i));
+        }
+        int j = 0;
+        for (int i = first; i < n; i++) {
+            int tag = lineTags.getTag(i);
+            long seq = lineTags.getSeq(i);
+            Paragraph<Collection<String>, String, Collection<String>> paragraph = area.getParagraph(window + i);
+            if (visible) {
+                for (; j < channel.hiddenCount && channel.hiddenSeqs[j] < seq; j++) {
+                    addParagraph(builder, channel.hidden.get(j));
+                    tags.add(channel.tag, channel.hiddenSeqs[j]);
                 }
+            } else if (tag == channel.tag) {
+                channel.addHidden(paragraph, seq);
+                continue;
             }
+            addParagraph(builder, paragraph);
+            tags.add(tag, seq);
         }
+        if (visible) {
+            for (; j < channel.hiddenCount; j++) {
+                addParagraph(builder, channel.hidden.get(j));
+                tags.add(channel.tag, channel.hiddenSeqs[j]);
+            }
+            channel.clearHidden();
+        }
+        builder.addParagraph("", area.getInitialTextStyle());
+        ReadOnlyStyledDocument<Collection<String>, String, Collection<String>> document = builder.build();
+        int start = area.getAbsolutePosition(window + first, 0);
+        int end = area.getAbsolutePosition(window + n, 0);
+        int anchor = area.getAnchor();
+        int caret = area.getCaretPosition();
+        area.replace(start, end, document);
+        lineTags = tags;
+        // a selection within the rebuilt lines is moved to the line that follows them
+        int delta = start + document.length() - end;
+        area.selectRange((anchor < start) ? anchor : Math.max(anchor, end) + delta,
+                (caret < start) ? caret : Math.max(caret, end) + delta);
+        findLine = -1;
+        if (finding) {
+            requestHighlight();
+        }
+        if (followTail) {
+            scrollRequested = true;
+        }
+    }
+
+    private static void addParagraph(
+            ReadOnlyStyledDocumentBuilder<Collection<String>, String, Collection<String>> builder,
+            Paragraph<Collection<String>, String, Collection<String>> paragraph) {
+        builder.addParagraph(paragraph.getSegments(), paragraph.getStyleSpans(), paragraph.getParagraphStyle());
     }
 
     /**
-     * Scrolls the <code>area</code> vertically to the bottom.
+     * Appends the specified <code>styleSegment</code> to the current batch.
      */
-    private void scrollToBottom() {
-        area.scrollYBy(Double.MAX_VALUE);
+    private void write(StyleSegment styleSegment) {
+        batch.append(styleSegment.getText(), styleSegment.getStyleClasses());
     }
 
-    public class Out extends Printer {
-
-        @Override
-        public void print(boolean b) {
-            Console.this.print(String.valueOf(b));
-        }
-
-        @Override
-        public void print(char c) {
-            Console.this.print(String.valueOf(c));
-        }
-
-        @Override
-        public void print(char[] s) {
-            Console.this.print(String.valueOf(s));
-        }
-
-        @Override
-        public void print(double d) {
-            Console.this.print(String.valueOf(d));
-        }
-
-        @Override
-        public void print(float f) {
-            Console.this.print(String.valueOf(f));
+    /**
+     * Requests the <code>area</code> to be scrolled vertically to the bottom in the next pulse,
+     * so that any number of requests within a frame result in a single scroll.
+     */
+    private void requestScrollToBottom() {
+        if (paused) {
+            // the user has returned to the input, which is at the bottom
+            resume();
+            return;
         }
+        scrollRequested = true;
+        schedule();
+    }
 
-        @Override
-        public void print(int i) {
-            Console.this.print(String.valueOf(i));
-        }
+    public class Out extends Printer {
 
         @Override
-        public void print(long l) {
-            Console.this.print(String.valueOf(l));
+        protected void printSegments(List<StyleSegment> styleSegments, boolean newline) {
+            Console.this.print(this, 0, styleSegments, newline, true);
         }
 
         @Override
-        public void print(String s) {
-            Console.this.print(s);
+        protected boolean offerSegments(List<StyleSegment> styleSegments, boolean newline) {
+            return Console.this.print(this, 0, styleSegments, newline, false);
         }
 
-        @Override
-        public void print(Object o) {
-            Console.this.print(String.valueOf(o));
+        private void printText(String text, boolean newline, String... styleClasses) {
+            // no lock is held while printing, as the print may wait for the console to catch up
+            flushBuffer();
+            printSegments(Collections.singletonList(new StyleSegment(text, Arrays.asList(styleClasses))), newline);
         }
 
         public void print(boolean b, String... styleClasses) {
-            Console.this.print(String.valueOf(b), styleClasses);
+            printText(String.valueOf(b), false, styleClasses);
         }
 
         public void print(char c, String... styleClasses) {
-            Console.this.print(String.valueOf(c));
+            printText(String.valueOf(c), false, styleClasses);
         }
 
         public void print(char[] s, String... styleClasses) {
-            Console.this.print(String.valueOf(s));
+            printText(String.valueOf(s), false, styleClasses);
         }
 
         public void print(double d, String... styleClasses) {
-            Console.this.print(String.valueOf(d));
+            printText(String.valueOf(d), false, styleClasses);
         }
 
         public void print(float f, String... styleClasses) {
-            Console.this.print(String.valueOf(f));
+            printText(String.valueOf(f), false, styleClasses);
         }
 
         public void print(int i, String... styleClasses) {
-            Console.this.print(String.valueOf(i));
+            printText(String.valueOf(i), false, styleClasses);
         }
 
         public void print(long l, String... styleClasses) {
-            Console.this.print(String.valueOf(l));
+            printText(String.valueOf(l), false, styleClasses);
         }
 
         public void print(String s, String... styleClasses) {
-            Console.this.print(s);
+            printText(String.valueOf(s), false, styleClasses);
         }
 
         public void print(Object o, String... styleClasses) {
-            Console.this.print(String.valueOf(o));
-        }
-
-        @Override
-        public void println(boolean x) {
-            Console.this.println(String.valueOf(x));
-        }
-
-        @Override
-        public void println(char x) {
-            Console.this.println(String.valueOf(x));
-        }
-
-        @Override
-        public void println(char[] x) {
-            Console.this.println(String.valueOf(x));
-        }
-
-        @Override
-        public void println(double x) {
-            Console.this.println(String.valueOf(x));
-        }
-
-        @Override
-        public void println(float x) {
-            Console.this.println(String.valueOf(x));
-        }
-
-        @Override
-        public void println(int x) {
-            Console.this.println(String.valueOf(x));
-        }
-
-        @Override
-        public void println(long x) {
-            Console.this.println(String.valueOf(x));
-        }
-
-        @Override
-        public void println(String x) {
-            Console.this.println(x);
-        }
-
-        @Override
-        public void println(Object x) {
-            Console.this.println(String.valueOf(x));
+            printText(String.valueOf(o), false, styleClasses);
         }
 
         public void println(boolean x, String... styleClasses) {
-            Console.this.println(String.valueOf(x), styleClasses);
+            printText(String.valueOf(x), true, styleClasses);
         }
 
         public void println(char x, String... styleClasses) {
-            Console.this.println(String.valueOf(x), styleClasses);
+            printText(String.valueOf(x), true, styleClasses);
         }
 
         public void println(char[] x, String... styleClasses) {
-            Console.this.println(String.valueOf(x), styleClasses);
+            printText(String.valueOf(x), true, styleClasses);
         }
 
         public void println(double x, String... styleClasses) {
-            Console.this.println(String.valueOf(x), styleClasses);
+            printText(String.valueOf(x), true, styleClasses);
         }
 
         public void println(float x, String... styleClasses) {
-            Console.this.println(String.valueOf(x), styleClasses);
+            printText(String.valueOf(x), true, styleClasses);
         }
 
         public void println(int x, String... styleClasses) {
-            Console.this.println(String.valueOf(x), styleClasses);
+            printText(String.valueOf(x), true, styleClasses);
         }
 
         public void println(long x, String... styleClasses) {
-            Console.this.println(String.valueOf(x), styleClasses);
+            printText(String.valueOf(x), true, styleClasses);
         }
 
         public void println(String x, String... styleClasses) {
-            Console.this.println(x, styleClasses);
+            printText(String.valueOf(x), true, styleClasses);
         }
 
         public void println(Object x, String... styleClasses) {
-            Console.this.println(String.valueOf(x), styleClasses);
-        }
-
-        @Override
-        public void println() {
-            Console.this.println();
+            printText(String.valueOf(x), true, styleClasses);
         }
     }
 
-    public class Err extends Printer {
+    /**
+     * A callback that is run on the <code>executor</code>, and whose future is completed once it returns.
+     */
+    private static final class Command implements Runnable {
 
-        @Override
-        public void print(boolean b) {
-            Console.this.print(String.valueOf(b), ERROR_STYLE_CLASSES);
-        }
+        private final Runnable runnable;
 
-        @Override
-        public void print(char c) {
-            Console.this.print(String.valueOf(c), ERROR_STYLE_CLASSES);
-        }
+        private final CompletableFuture<Void> future;
 
-        @Override
-        public void print(char[] s) {
-            Console.this.print(String.valueOf(s), ERROR_STYLE_CLASSES);
-        }
+        // the thread that runs the callback, or null if it is not running
+        private Thread thread;
 
-        @Override
-        public void print(double d) {
-            Console.this.print(String.valueOf(d), ERROR_STYLE_CLASSES);
+        private Command(Runnable runnable) {
+            this.runnable = runnable;
+            this.future = new CompletableFuture<>();
         }
 
         @Override
-        public void print(float f) {
-            Console.this.print(String.valueOf(f), ERROR_STYLE_CLASSES);
+        public void run() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    return;
+                }
+                thread = Thread.currentThread();
+            }
+            try {
+                runnable.run();
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                synchronized (this) {
+                    thread = null;
+                    // the thread may be pooled, and must not remain interrupted
+                    Thread.interrupted();
+                }
+            }
         }
 
-        @Override
-        public void print(int i) {
-            Console.this.print(String.valueOf(i), ERROR_STYLE_CLASSES);
+        private synchronized void cancel() {
+            if (future.cancel(true) && thread != null) {
+                thread.interrupt();
+            }
         }
 
-        @Override
-        public void print(long l) {
-            Console.this.print(String.valueOf(l), ERROR_STYLE_CLASSES);
+        private CompletableFuture<Void> getFuture() {
+            return future;
         }
+    }
 
-        @Override
-        public void print(String s) {
-            Console.this.print(s, ERROR_STYLE_CLASSES);
-        }
+    /**
+     * A paragraph that holds highlighted matches, and its style spans prior to being highlighted.
+     */
+    private static final class Highlight {
 
-        @Override
-        public void print(Object o) {
-            Console.this.print(String.valueOf(o), ERROR_STYLE_CLASSES);
-        }
+        private final int paragraph;
 
-        @Override
-        public void println(boolean b) {
-            Console.this.println(String.valueOf(b), ERROR_STYLE_CLASSES);
-        }
+        private final String text;
 
-        @Override
-        public void println(char c) {
-            Console.this.println(String.valueOf(c), ERROR_STYLE_CLASSES);
+        private final StyleSpans<Collection<String>> styles;
+
+        private Highlight(int paragraph, String text, StyleSpans<Collection<String>> styles) {
+            this.paragraph = paragraph;
+            this.text = text;
+            this.styles = styles;
         }
+    }
 
-        @Override
-        public void println(char[] s) {
-            Console.this.println(String.valueOf(s), ERROR_STYLE_CLASSES);
+    /**
+     * This class represents a named channel of a {@link Console}, that is created using
+     * {@link Console#channel(String)}.
+     * <p>
+     * Each line printed by a channel is tagged with the channel, so that the lines of the channel can be hidden,
+     * and shown again, without being printed again. Its style classes are applied to any text that it prints,
+     * and each of its lines can optionally be prefixed with a timestamp, and the name of the channel.
+     */
+    public class Channel extends Printer {
+
+        private final String name;
+
+        private final int tag;
+
+        private volatile List<String> styleClasses;
+
+        private volatile boolean timestamped;
+
+        private volatile boolean tagged;
+
+        private volatile boolean visible;
+
+        // whether the next text printed starts a new line; guarded by this channel, which is never held while printing
+        private boolean lineStart;
+
+        // whether the lines of this channel are shown; only accessed on the FX thread
+        private boolean shown;
+
+        // the segments of the current hidden line
+        private List<StyledSegment<String, Collection<String>>> pending;
+
+        // the lines printed by this channel while it was hidden, and their sequence numbers
+        private final List<Paragraph<Collection<String>, String, Collection<String>>> hidden;
+
+        private long[] hiddenSeqs;
+
+        private int hiddenCount;
+
+        private Channel(String name, int tag) {
+            this.name = name;
+            this.tag = tag;
+            this.styleClasses = Collections.emptyList();
+            this.timestamped = false;
+            this.tagged = false;
+            this.visible = true;
+            this.lineStart = true;
+            this.shown = true;
+            this.pending = new ArrayList<>();
+            this.hidden = new ArrayList<>();
+            this.hiddenSeqs = new long[16];
+            this.hiddenCount = 0;
         }
 
         @Override
-        public void println(double d) {
-            Console.this.println(String.valueOf(d), ERROR_STYLE_CLASSES);
+        protected void printSegments(List<StyleSegment> styleSegments, boolean newline) {
+            List<StyleSegment> channelSegments;
+            synchronized (this) {
+                channelSegments = toChannelSegments(styleSegments, newline);
+            }
+            Console.this.print(this, tag, channelSegments, newline, true);
         }
 
         @Override
-        public void println(float f) {
-            Console.this.println(String.valueOf(f), ERROR_STYLE_CLASSES);
+        protected boolean offerSegments(List<StyleSegment> styleSegments, boolean newline) {
+            List<StyleSegment> channelSegments;
+            synchronized (this) {
+                channelSegments = toChannelSegments(styleSegments, newline);
+            }
+            return Console.this.print(this, tag, channelSegments, newline, false);
+        }
+
+        /**
+         * Returns the specified <code>styleSegments</code>, with the style classes of this channel prepended to the
+         * style classes of each segment, and with the prefix of this channel ahead of each line.
+         */
+        private List<StyleSegment> toChannelSegments(List<StyleSegment> styleSegments, boolean newline) {
+            List<String> styleClasses = this.styleClasses;
+            boolean prefixed = timestamped || tagged;
+            List<StyleSegment> channelSegments = new ArrayList<>(styleSegments.size() + 1);
+            for (StyleSegment styleSegment : styleSegments) {
+                String text = styleSegment.getText();
+                List<String> segmentClasses = styleSegment.getStyleClasses();
+                if (!styleClasses.isEmpty()) {
+                    segmentClasses = new ArrayList<>(styleClasses);
+                    segmentClasses.addAll(styleSegment.getStyleClasses());
+                }
+                int start = 0;
+                while (start < text.length()) {
+                    if (lineStart && prefixed) {
+                        channelSegments.add(getPrefix(styleClasses));
+                    }
+                    int end = text.indexOf(LINE_SEPARATOR_UNIX, start);
+                    lineStart = (end != -1);
+                    end = (end == -1) ? text.length() : end + 1;
+                    channelSegments.add(new StyleSegment(
+                            (start == 0 && end == text.length()) ? text : text.substring(start, end), segmentClasses));
+                    start = end;
+                }
+            }
+            if (newline) {
+                if (lineStart && prefixed) {
+                    channelSegments.add(getPrefix(styleClasses));
+                }
+                lineStart = true;
+            }
+            return channelSegments;
         }
 
-        @Override
-        public void println(int i) {
-            Console.this.println(String.valueOf(i), ERROR_STYLE_CLASSES);
+        private StyleSegment getPrefix(List<String> styleClasses) {
+            StringBuilder sb = new StringBuilder();
+            if (timestamped) {
+                sb.append(TIMESTAMP_FORMATTER.format(LocalTime.now())).append(WHITESPACE);
+            }
+            if (tagged) {
+                sb.append('[').append(name).append(']').append(WHITESPACE);
+            }
+            List<String> prefixClasses = new ArrayList<>(styleClasses);
+            prefixClasses.add(CHANNEL_PREFIX_STYLE_CLASS);
+            return new StyleSegment(sb.toString(), prefixClasses);
+        }
+
+        /**
+         * @return the name of this channel.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Specify the style classes to be applied to any text printed by this channel, ahead of the style classes
+         * of the text itself.
+         * @param styleClasses the style classes.
+         */
+        public void setStyleClasses(String... styleClasses) {
+            this.styleClasses = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(styleClasses)));
+        }
+
+        /**
+         * @return the style classes applied to any text printed by this channel.
+         */
+        public List<String> getStyleClasses() {
+            return styleClasses;
+        }
+
+        /**
+         * Specify whether each line printed by this channel should be prefixed with the time it was printed.
+         * @param value a boolean.
+         */
+        public void setTimestamped(boolean value) {
+            this.timestamped = value;
+        }
+
+        /**
+         * @return <code>true</code> if each line is prefixed with the time it was printed,
+         * otherwise <code>false</code>.
+         */
+        public boolean isTimestamped() {
+            return timestamped;
+        }
+
+        /**
+         * Specify whether each line printed by this channel should be prefixed with the name of this channel.
+         * @param value a boolean.
+         */
+        public void setTagged(boolean value) {
+            this.tagged = value;
+        }
+
+        /**
+         * @return <code>true</code> if each line is prefixed with the name of this channel,
+         * otherwise <code>false</code>.
+         */
+        public boolean isTagged() {
+            return tagged;
+        }
+
+        /**
+         * Specify whether the lines of this channel should be shown.
+         * Any line printed prior to the call is shown, or hidden, once it has been appended;
+         * the view is rebuilt from the tags of its lines in a single edit, so that no line is printed again.
+         * The edit spans the lines from the first line of this channel onwards, so that its cost is proportional
+         * to the number of those lines; toggling a channel whose lines span the whole document rebuilds the whole
+         * document. The view is not filtered lazily, so for a document of a million lines, such a toggle takes
+         * seconds rather than milliseconds; bound the document using {@link Console#setMaxLines(int)} if channels
+         * are to be toggled interactively.
+         * @param value a boolean.
+         */
+        public void setVisible(boolean value) {
+            this.visible = value;
+            enqueue(Output.command(() -> Console.this.setVisible(this, value)));
+        }
+
+        /**
+         * @return <code>true</code> if the lines of this channel are shown,
+         * otherwise <code>false</code>.
+         */
+        public boolean isVisible() {
+            return visible;
+        }
+
+        private void appendHidden(String text, List<String> styleClasses) {
+            if (!text.isEmpty()) {
+                pending.add(new StyledSegment<>(text, styleClasses));
+            }
         }
 
-        @Override
-        public void println(long l) {
-            Console.this.println(String.valueOf(l), ERROR_STYLE_CLASSES);
+        private void addHidden(Paragraph<Collection<String>, String, Collection<String>> paragraph, long seq) {
+            if (hiddenCount == hiddenSeqs.length) {
+                hiddenSeqs = Arrays.copyOf(hiddenSeqs, hiddenCount * 2);
+            }
+            hidden.add(paragraph);
+            hiddenSeqs[hiddenCount++] = seq;
+        }
+
+        /**
+         * Removes the hidden lines whose sequence numbers are less than the specified <code>bound</code>.
+         * @return the number of lines removed.
+         */
+        private int removeHidden(long bound) {
+            int n = 0;
+            while (n < hiddenCount && hiddenSeqs[n] < bound) {
+                n++;
+            }
+            if (n != 0) {
+                hidden.subList(0, n).clear();
+                System.arraycopy(hiddenSeqs, n, hiddenSeqs, 0, hiddenCount - n);
+                hiddenCount -= n;
+            }
+            return n;
         }
 
-        @Override
-        public void println(String s) {
-            Console.this.println(s, ERROR_STYLE_CLASSES);
+        private void clearHidden() {
+            hidden.clear();
+            hiddenCount = 0;
+            pending.clear();
         }
+    }
+
+    public class Err extends Printer {
 
         @Override
-        public void println(Object o) {
-            Console.this.println(String.valueOf(o), ERROR_STYLE_CLASSES);
+        protected void printSegments(List<StyleSegment> styleSegments, boolean newline) {
+            Console.this.print(this, 0, toErrorSegments(styleSegments), newline, true);
         }
 
         @Override
-        public void println() {
-            Console.this.println();
+        protected boolean offerSegments(List<StyleSegment> styleSegments, boolean newline) {
+            return Console.this.print(this, 0, toErrorSegments(styleSegments), newline, false);
+        }
+
+        /**
+         * Returns the specified <code>styleSegments</code>, with the error style class prepended to the style classes
+         * of each segment.
+         */
+        private List<StyleSegment> toErrorSegments(List<StyleSegment> styleSegments) {
+            List<StyleSegment> errorSegments = new ArrayList<>(styleSegments.size());
+            for (StyleSegment styleSegment : styleSegments) {
+                List<String> styleClasses = styleSegment.getStyleClasses();
+                if (!styleClasses.isEmpty()) {
+                    styleClasses = new ArrayList<>(styleClasses);
+                    styleClasses.add(0, ERROR_STYLE_CLASS);
+                }
+                errorSegments.add(new StyleSegment(
+                        styleSegment.getText(), styleClasses.isEmpty() ? ERROR_STYLE_CLASS_LIST : styleClasses));
+            }
+            return errorSegments;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,338 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.function.IntSupplier;
+import java.util.concurrent.atomic.LongAdder;
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javafx.application.Platform;
+
+/**
+ * This class exposes runtime metrics of the rendering pipeline of a {@link Console}; from the threads that print,
+ * through the output queue, to the batches that are appended on the <code>JavaFX Application Thread</code>.
+ * <br/>
+ * Counters that are updated by printing threads are striped, and any other counter is only written by the
+ * JavaFX Application Thread, so collecting the metrics requires no locking and can be left on.
+ * The metrics may be read from any thread, and may optionally be registered as a platform MXBean.
+ */
+public final class ConsoleMetrics implements ConsoleMetricsMXBean {
+
+    /*
+    ###########################
+    #      STATIC FIELDS      #
+    ###########################
+    */
+
+    public static final String OBJECT_NAME_PREFIX = "com.github.wnebyte.consolefx:type=Console,name=";
+
+    // a rough estimate of the retained size of a paragraph, excluding its chars
+    private static final long PARAGRAPH_OVERHEAD_BYTES = 200L;
+
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    /*
+    ###########################
+    #          FIELDS         #
+    ###########################
+    */
+
+    private final IntSupplier queueDepth;
+
+    private final LongAdder enqueued;
+
+    private final LongAdder evicted;
+
+    private final LongAdder dropped;
+
+    private volatile long lines;
+
+    private volatile long chars;
+
+    private volatile long batches;
+
+    private volatile long totalBatchNanos;
+
+    private volatile long lastBatchNanos;
+
+    private volatile long maxBatchNanos;
+
+    private volatile long lastBatchTime;
+
+    private volatile int paragraphs;
+
+    private volatile int length;
+
+    private volatile double linesPerSecond;
+
+    private volatile double charsPerSecond;
+
+    // the start of the current rate window, and the counters at its start; only accessed on the FX thread
+    private long windowStart;
+
+    private long windowLines;
+
+    private long windowChars;
+
+    private ObjectName objectName;
+
+    /*
+    ###########################
+    #       CONSTRUCTORS      #
+    ###########################
+    */
+
+    ConsoleMetrics(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+        this.enqueued = new LongAdder();
+        this.evicted = new LongAdder();
+        this.dropped = new LongAdder();
+        this.paragraphs = 1;
+        this.windowStart = System.nanoTime();
+        this.lastBatchTime = windowStart;
+    }
+
+    /*
+    ###########################
+    #          METHODS        #
+    ###########################
+    */
+
+    void onEnqueued() {
+        enqueued.increment();
+    }
+
+    void onEvicted(int lines) {
+        evicted.add(lines);
+    }
+
+    void onDropped(int lines) {
+        dropped.add(lines);
+    }
+
+    /**
+     * Records a batch that has been appended on the <code>JavaFX Application Thread</code>.
+     * @param nanos the time spent appending the batch.
+     * @param lines the total number of lines appended so far.
+     * @param chars the total number of chars appended so far.
+     * @param paragraphs the number of paragraphs in the document.
+     * @param length the length of the document.
+     */
+    void onBatch(long nanos, long lines, long chars, int paragraphs, int length) {
+        long now = System.nanoTime();
+        this.lines = lines;
+        this.chars = chars;
+        this.batches = batches + 1;
+        this.totalBatchNanos = totalBatchNanos + nanos;
+        this.lastBatchNanos = nanos;
+        if (nanos > maxBatchNanos) {
+            this.maxBatchNanos = nanos;
+        }
+        this.lastBatchTime = now;
+        this.paragraphs = paragraphs;
+        this.length = length;
+        long elapsed = now - windowStart;
+        if (elapsed >= RATE_WINDOW_NANOS) {
+            this.linesPerSecond = (lines - windowLines) * 1e9 / elapsed;
+            this.charsPerSecond = (chars - windowChars) * 1e9 / elapsed;
+            windowStart = now;
+            windowLines = lines;
+            windowChars = chars;
+        }
+    }
+
+    /**
+     * @return the number of outputs that have been printed, but not yet appended.
+     */
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    /**
+     * @return the number of outputs that have been enqueued; i.e. print calls and commands.
+     */
+    @Override
+    public long getEnqueuedOutputs() {
+        return enqueued.sum();
+    }
+
+    /**
+     * @return the number of line separators that have been appended.
+     */
+    @Override
+    public long getAppendedLines() {
+        return lines;
+    }
+
+    /**
+     * @return the number of chars that have been appended.
+     */
+    @Override
+    public long getAppendedChars() {
+        return chars;
+    }
+
+    /**
+     * @return the number of lines appended per second, measured over the most recent window of about a second,
+     * or <code>0</code> if nothing has been appended during the last two windows.
+     */
+    @Override
+    public double getLinesPerSecond() {
+        return isIdle() ? 0 : linesPerSecond;
+    }
+
+    /**
+     * @return the number of chars appended per second, measured over the most recent window of about a second,
+     * or <code>0</code> if nothing has been appended during the last two windows.
+     */
+    @Override
+    public double getCharsPerSecond() {
+        return isIdle() ? 0 : charsPerSecond;
+    }
+
+    /**
+     * @return the number of batches that have been appended on the <code>JavaFX Application Thread</code>.
+     */
+    @Override
+    public long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * @return the time spent on the <code>JavaFX Application Thread</code> appending the most recent batch.
+     */
+    @Override
+    public long getLastBatchNanos() {
+        return lastBatchNanos;
+    }
+
+    /**
+     * @return the maximum time spent on the <code>JavaFX Application Thread</code> appending a batch.
+     */
+    @Override
+    public long getMaxBatchNanos() {
+        return maxBatchNanos;
+    }
+
+    /**
+     * @return the average time spent on the <code>JavaFX Application Thread</code> appending a batch.
+     */
+    @Override
+    public long getAverageBatchNanos() {
+        long batches = this.batches;
+        return (batches == 0) ? 0 : totalBatchNanos / batches;
+    }
+
+    /**
+     * Returns the time elapsed since the most recent batch was appended. If this keeps growing while the
+     * queue depth is non-zero, the <code>JavaFX Application Thread</code> is blocked.
+     * @return the time elapsed since the most recent batch.
+     */
+    @Override
+    public long getNanosSinceLastBatch() {
+        return System.nanoTime() - lastBatchTime;
+    }
+
+    /**
+     * @return the number of paragraphs in the document, as of the most recent batch.
+     */
+    @Override
+    public int getParagraphCount() {
+        return paragraphs;
+    }
+
+    /**
+     * @return the number of chars in the document, as of the most recent batch.
+     */
+    @Override
+    public int getDocumentLength() {
+        return length;
+    }
+
+    /**
+     * @return a rough estimate of the memory retained by the document, in bytes.
+     */
+    @Override
+    public long getEstimatedDocumentBytes() {
+        return 2L * length + PARAGRAPH_OVERHEAD_BYTES * paragraphs;
+    }
+
+    /**
+     * @return the number of lines that have been removed from the document, as the retention limits were exceeded.
+     */
+    @Override
+    public long getEvictedLines() {
+        return evicted.sum();
+    }
+
+    /**
+     * @return the number of outputs, i.e. print calls, that have been dropped before being appended.
+     */
+    @Override
+    public long getDroppedLines() {
+        return dropped.sum();
+    }
+
+    /**
+     * Resets the enqueued, evicted and dropped counters, and the batch statistics.
+     * The appended lines and chars, and the state of the document, are not affected.
+     * <br/>
+     * The batch statistics are only written by the <code>JavaFX Application Thread</code>, so if called from any
+     * other thread, e.g. over JMX, they are reset once the JavaFX Application Thread gets to it.
+     */
+    @Override
+    public void reset() {
+        enqueued.reset();
+        evicted.reset();
+        dropped.reset();
+        if (Platform.isFxApplicationThread()) {
+            resetBatches();
+        } else {
+            Platform.runLater(this::resetBatches);
+        }
+    }
+
+    /**
+     * Registers these metrics with the platform <code>MBeanServer</code>.
+     * @param name the value of the <code>name</code> key of the <code>ObjectName</code>.
+     * @return the ObjectName that the metrics were registered under.
+     * @throws JMException if the metrics could not be registered.
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+        if (objectName != null) {
+            throw new IllegalStateException(
+                    "The metrics have already been registered."
+            );
+        }
+        ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.objectName = objectName;
+        return objectName;
+    }
+
+    /**
+     * Unregisters these metrics from the platform <code>MBeanServer</code>, if they have been registered.
+     * @throws JMException if the metrics could not be unregistered.
+     */
+    public synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                server.unregisterMBean(objectName);
+            } finally {
+                objectName = null;
+            }
+        }
+    }
+
+    private void resetBatches() {
+        batches = 0;
+        totalBatchNanos = 0;
+        maxBatchNanos = 0;
+    }
+
+    private boolean isIdle() {
+        return (System.nanoTime() - lastBatchTime) > 2 * RATE_WINDOW_NANOS;
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.wnebyte.consolefx;
+
+/**
+ * This interface declares the attributes of a {@link ConsoleMetrics} that are exposed through JMX.
+ */
+public interface ConsoleMetricsMXBean {
+
+    int getQueueDepth();
+
+    long getEnqueuedOutputs();
+
+    long getAppendedLines();
+
+    long getAppendedChars();
+
+    double getLinesPerSecond();
+
+    double getCharsPerSecond();
+
+    long getBatchCount();
+
+    long getLastBatchNanos();
+
+    long getMaxBatchNanos();
+
+    long getAverageBatchNanos();
+
+    long getNanosSinceLastBatch();
+
+    int getParagraphCount();
+
+    int getDocumentLength();
+
+    long getEstimatedDocumentBytes();
+
+    long getEvictedLines();
+
+    long getDroppedLines();
+
+    void reset();
+}
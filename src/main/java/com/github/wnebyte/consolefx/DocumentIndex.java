@@ -0,0 +1,185 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.function.LongFunction;
+import static com.github.wnebyte.consolefx.util.Strings.indexOfIgnoreCase;
+import static com.github.wnebyte.consolefx.util.Strings.lastIndexOfIgnoreCase;
+
+/**
+ * This class represents an index over the lines of a document, that are numbered from the start of the session,
+ * so that the number of a line is retained as the lines that precede it are removed.
+ * <p>
+ * The lines are partitioned into chunks of {@link DocumentIndex#CHUNK_SIZE} lines, and a bloom filter is held over
+ * the trigrams of the lines of each chunk, ignoring case. A search only scans the lines of the chunks whose filter
+ * holds every trigram of the query, and any line that has yet to be indexed.
+ * <br/>
+ * A chunk is indexed once each of its lines, other than the last line of the document, has been appended,
+ * and is discarded as soon as any of its lines changes.
+ */
+final class DocumentIndex {
+
+    static final int CHUNK_SIZE = 128;
+
+    // the number of bits of each filter, i.e. 1 KiB per chunk
+    private static final int FILTER_BITS = 1 << 13;
+
+    private static final int HASH_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(FILTER_BITS);
+
+    // a ring of the filters of the chunks in the range [firstChunk, firstChunk + count)
+    private long[][] filters;
+
+    private int head;
+
+    private int count;
+
+    private long firstChunk;
+
+    // the number of the first line of the document
+    private long first;
+
+    DocumentIndex() {
+        this.filters = new long[16][];
+    }
+
+    /**
+     * @return the number of the first line of the document.
+     */
+    long getFirst() {
+        return first;
+    }
+
+    /**
+     * Removes the specified number of lines from the start of the document.
+     * A chunk is retained until each of its lines has been removed.
+     */
+    void removeFirst(int n) {
+        first += n;
+        while (count > 0 && (firstChunk + 1) * CHUNK_SIZE <= first) {
+            filters[head] = null;
+            head = (head + 1) % filters.length;
+            firstChunk++;
+            count--;
+        }
+    }
+
+    /**
+     * Discards the chunk that holds the specified line, and every chunk that follows it.
+     */
+    void invalidate(long line) {
+        while (count > 0 && line < (firstChunk + count) * CHUNK_SIZE) {
+            count--;
+            filters[(head + count) % filters.length] = null;
+        }
+    }
+
+    /**
+     * Indexes every chunk that has yet to be indexed, and that ends at or before the specified line.
+     * @param end  the number of the last line of the document, which is not to be indexed.
+     * @param text a function that returns the text of a line.
+     */
+    void update(long end, LongFunction<String> text) {
+        if (count == 0) {
+            firstChunk = first / CHUNK_SIZE;
+        }
+        for (long chunk = firstChunk + count; (chunk + 1) * CHUNK_SIZE <= end; chunk++) {
+            long[] filter = new long[FILTER_BITS / Long.SIZE];
+            for (long line = Math.max(first, chunk * CHUNK_SIZE); line < (chunk + 1) * CHUNK_SIZE; line++) {
+                String s = text.apply(line);
+                for (int i = 0; i + 2 < s.length(); i++) {
+                    int bit = hash(s.charAt(i), s.charAt(i + 1), s.charAt(i + 2));
+                    filter[bit >>> 6] |= 1L << bit;
+                }
+            }
+            if (count == filters.length) {
+                long[][] arr = new long[count * 2][];
+                for (int i = 0; i < count; i++) {
+                    arr[i] = filters[(head + i) % count];
+                }
+                filters = arr;
+                head = 0;
+            }
+            filters[(head + count++) % filters.length] = filter;
+        }
+    }
+
+    /**
+     * Returns the number of the nearest line that holds the specified <code>query</code>, ignoring case, starting at
+     * the specified <code>line</code>, where the occurrence must start at or before, or at or after, the specified
+     * <code>column</code> of the first line searched.
+     * @param query    the String to search for.
+     * @param line     the number of the line to start at.
+     * @param column   the column of said line to start at.
+     * @param backward whether preceding, rather than following, lines are to be searched.
+     * @param end      the number of lines of the document, i.e. the number of the last line + 1.
+     * @param text     a function that returns the text of a line.
+     * @return the number of the line, or <code>-1</code> if there is none.
+     */
+    long search(String query, long line, int column, boolean backward, long end, LongFunction<String> text) {
+        int[] bits = new int[Math.max(0, query.length() - 2)];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = hash(query.charAt(i), query.charAt(i + 1), query.charAt(i + 2));
+        }
+        if (backward) {
+            for (long l = Math.min(line, end - 1); l >= first; l--) {
+                long chunk = l / CHUNK_SIZE;
+                if (!mayContain(chunk, bits)) {
+                    // continues with the last line of the preceding chunk
+                    l = chunk * CHUNK_SIZE;
+                    continue;
+                }
+                String s = text.apply(l);
+                if (lastIndexOfIgnoreCase(s, query, (l == line) ? column : s.length()) != -1) {
+                    return l;
+                }
+            }
+        } else {
+            for (long l = Math.max(line, first); l < end; l++) {
+                long chunk = l / CHUNK_SIZE;
+                if (!mayContain(chunk, bits)) {
+                    // continues with the first line of the following chunk
+                    l = (chunk + 1) * CHUNK_SIZE - 1;
+                    continue;
+                }
+                if (indexOfIgnoreCase(text.apply(l), query, (l == line) ? column : 0) != -1) {
+                    return l;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of chunks that are indexed.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Returns whether the specified chunk may hold a line that has every trigram that is represented by the
+     * specified <code>bits</code>; a chunk that has yet to be indexed may hold any line.
+     */
+    private boolean mayContain(long chunk, int[] bits) {
+        if (chunk < firstChunk || firstChunk + count <= chunk) {
+            return true;
+        }
+        long[] filter = filters[(int) ((head + chunk - firstChunk) % filters.length)];
+        for (int bit : bits) {
+            if ((filter[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(char a, char b, char c) {
+        int h = (fold(a) * 31 + fold(b)) * 31 + fold(c);
+        return (h * 0x9E3779B9) >>> HASH_SHIFT;
+    }
+
+    /**
+     * Folds the case of the specified char, in the same way as {@link String#regionMatches(boolean, int, String, int, int)}.
+     */
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.wnebyte.consolefx;
+
+/**
+ * This enum declares the formats that the contents of a {@link Console} can be exported to.
+ */
+public enum ExportFormat {
+
+    /**
+     * UTF-8 encoded text, without any style.
+     */
+    PLAIN,
+
+    /**
+     * A UTF-8 encoded HTML document, where every styled run of text is a <code>span</code> that has the style classes
+     * of the text as its classes.
+     */
+    HTML,
+
+    /**
+     * UTF-8 encoded text, where the style classes of the <code>ANSI/VT100</code> graphic renditions are translated
+     * back into <code>SGR</code> escape sequences.
+     */
+    ANSI
+}
@@ -0,0 +1,256 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Collection;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+import org.fxmisc.richtext.model.StyledSegment;
+import static com.github.wnebyte.consolefx.AnsiParser.COLORS;
+import static com.github.wnebyte.consolefx.AnsiParser.STYLE_CLASS_PREFIX;
+
+/**
+ * This class writes paragraphs of styled text to a channel in a specified {@link ExportFormat}, one paragraph at a
+ * time, so that any number of paragraphs can be written in constant memory.
+ * <p>
+ * Text is encoded through a fixed size buffer, that is written to the channel whenever it fills up.
+ */
+final class Exporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final char ESC = '\u001B';
+
+    private static final String RESET = ESC + "[0m";
+
+    private final WritableByteChannel channel;
+
+    private final ExportFormat format;
+
+    private final CharsetEncoder encoder;
+
+    private final CharBuffer chars;
+
+    private final ByteBuffer bytes;
+
+    // the SGR parameters of every distinct list of style classes
+    private final Map<Collection<String>, String> parameters;
+
+    // the SGR parameters that are currently in effect
+    private String rendition;
+
+    private boolean first;
+
+    Exporter(WritableByteChannel channel, ExportFormat format) {
+        this.channel = channel;
+        this.format = format;
+        // a lone surrogate is replaced, rather than being retained in the buffer indefinitely
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(BUFFER_SIZE / 4);
+        this.bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.parameters = new HashMap<>();
+        this.rendition = "";
+        this.first = true;
+    }
+
+    void begin() throws IOException {
+        if (format == ExportFormat.HTML) {
+            write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n</head>\n<body>\n<pre class=\"console\">");
+        }
+    }
+
+    /**
+     * Writes the specified paragraph, preceded by a line separator unless it is the first paragraph.
+     * @param segments the segments of the paragraph.
+     */
+    void paragraph(List<StyledSegment<String, Collection<String>>> segments) throws IOException {
+        if (!first) {
+            write('\n');
+        }
+        first = false;
+        for (StyledSegment<String, Collection<String>> segment : segments) {
+            String text = segment.getSegment();
+            if (text.isEmpty()) {
+                continue;
+            }
+            Collection<String> styleClasses = segment.getStyle();
+            switch (format) {
+                case PLAIN:
+                    write(text);
+                    break;
+                case HTML:
+                    if (styleClasses.isEmpty()) {
+                        writeEscaped(text);
+                    } else {
+                        write("<span class=\"");
+                        writeEscaped(String.join(" ", styleClasses));
+                        write("\">");
+                        writeEscaped(text);
+                        write("</span>");
+                    }
+                    break;
+                case ANSI:
+                    String parameters = getParameters(styleClasses);
+                    if (!parameters.equals(rendition)) {
+                        write(parameters.isEmpty() ? RESET : ESC + "[0;" + parameters + "m");
+                        rendition = parameters;
+                    }
+                    write(text);
+                    break;
+            }
+        }
+        if (!rendition.isEmpty()) {
+            // every line is self-contained
+            write(RESET);
+            rendition = "";
+        }
+    }
+
+    /**
+     * Completes the output, and writes any buffered bytes to the channel.
+     */
+    void end() throws IOException {
+        if (format == ExportFormat.HTML) {
+            write("</pre>\n</body>\n</html>\n");
+        }
+        encode(true);
+        while (encoder.flush(bytes) == CoderResult.OVERFLOW) {
+            drain();
+        }
+        drain();
+    }
+
+    private void write(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put(c);
+    }
+
+    private void write(String s) throws IOException {
+        int offset = 0;
+        while (offset < s.length()) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            int n = Math.min(chars.remaining(), s.length() - offset);
+            chars.put(s, offset, offset + n);
+            offset += n;
+        }
+    }
+
+    private void writeEscaped(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '&':
+                    write("&amp;");
+                    break;
+                case '<':
+                    write("&lt;");
+                    break;
+                case '>':
+                    write("&gt;");
+                    break;
+                case '"':
+                    write("&quot;");
+                    break;
+                default:
+                    write(c);
+            }
+        }
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (encoder.encode(chars, bytes, endOfInput) == CoderResult.OVERFLOW) {
+            drain();
+        }
+        // a high surrogate may remain, as its low surrogate has yet to be written
+        chars.compact();
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Returns the SGR parameters that correspond to the specified style classes; any style class that does not
+     * correspond to a graphic rendition is disregarded, other than the error style class, which is rendered red.
+     */
+    private String getParameters(Collection<String> styleClasses) {
+        if (styleClasses.isEmpty()) {
+            return "";
+        }
+        String s = parameters.get(styleClasses);
+        if (s == null) {
+            StringBuilder builder = new StringBuilder();
+            for (String styleClass : styleClasses) {
+                int parameter = getParameter(styleClass);
+                if (parameter != -1) {
+                    if (builder.length() != 0) {
+                        builder.append(';');
+                    }
+                    builder.append(parameter);
+                }
+            }
+            s = builder.toString();
+            parameters.put(styleClasses, s);
+        }
+        return s;
+    }
+
+    private static int getParameter(String styleClass) {
+        if (styleClass.equals(Console.ERROR_STYLE_CLASS)) {
+            return 31;
+        }
+        if (!styleClass.startsWith(STYLE_CLASS_PREFIX)) {
+            return -1;
+        }
+        String s = styleClass.substring(STYLE_CLASS_PREFIX.length());
+        switch (s) {
+            case "bold":
+                return 1;
+            case "faint":
+                return 2;
+            case "italic":
+                return 3;
+            case "underline":
+                return 4;
+            case "strikethrough":
+                return 9;
+        }
+        int base;
+        if (s.startsWith("fg-")) {
+            base = 30;
+        } else if (s.startsWith("bg-")) {
+            base = 40;
+        } else {
+            return -1;
+        }
+        s = s.substring(3);
+        if (s.startsWith("bright-")) {
+            base += 60;
+            s = s.substring(7);
+        }
+        for (int i = 0; i < COLORS.length; i++) {
+            if (COLORS[i].equals(s)) {
+                return base + i;
+            }
+        }
+        return -1;
+    }
+}
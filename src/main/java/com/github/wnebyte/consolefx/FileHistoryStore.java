@@ -0,0 +1,114 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.io.Writer;
+import java.io.IOException;
+import java.io.BufferedReader;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class is an implementation of {@link HistoryStore} that persists each entry as a line,
+ * appended to the end of a UTF-8 encoded file.
+ * <br/>
+ * When loaded, a file holding considerably more lines than are of interest is compacted,
+ * so that the file does not grow without bounds.
+ */
+public final class FileHistoryStore implements HistoryStore {
+
+    private static final int COMPACTION_FACTOR = 2;
+
+    private final Path path;
+
+    private Writer writer;
+
+    public FileHistoryStore(Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException(
+                    "The path must not be null."
+            );
+        }
+        this.path = path;
+    }
+
+    @Override
+    public List<String> load(int max) throws IOException {
+        if (!Files.exists(path)) {
+            return new ArrayList<>(0);
+        }
+        ArrayDeque<String> lines = new ArrayDeque<>(Math.min(max, 1024));
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                count++;
+                if (lines.size() == max) {
+                    lines.pollFirst();
+                }
+                lines.addLast(line);
+            }
+        }
+        if (count > COMPACTION_FACTOR * max) {
+            compact(lines);
+        }
+        return new ArrayList<>(lines);
+    }
+
+    @Override
+    public synchronized void append(String entry) throws IOException {
+        if (writer == null) {
+            writer = open(StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(escape(entry));
+        writer.write('\n');
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    private synchronized void compact(Iterable<String> lines) throws IOException {
+        close();
+        try (Writer writer = open(StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+
+    private Writer open(OpenOption... options) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return Files.newBufferedWriter(path, StandardCharsets.UTF_8, options);
+    }
+
+    private void close() throws IOException {
+        if (writer != null) {
+            try {
+                writer.close();
+            } finally {
+                writer = null;
+            }
+        }
+    }
+
+    private static String escape(String entry) {
+        // an entry must occupy exactly one line
+        return (entry.indexOf('\n') == -1 && entry.indexOf('\r') == -1) ?
+                entry : entry.replace('\r', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,360 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.io.IOException;
+
+/**
+ * This class represents a bounded command history, backed by a ring buffer.
+ * <br/>
+ * Once the capacity has been reached, the oldest entry is evicted as a new entry is added.
+ * Adding an entry and navigating the history are constant time operations,
+ * and the entries are indexed by their trigrams so that they can be searched incrementally.
+ * If a {@link HistoryStore} is specified, its entries are loaded on a background thread upon construction,
+ * and are merged ahead of any entry that has been added in the meantime, once loaded. Each added entry is appended
+ * to the store on the same thread, so that the calling thread never waits on I/O; an entry is retained by this
+ * history even if it could not be persisted, and the failure is passed to the error handler.
+ * <br/>
+ * This class is not thread-safe; it is intended to be used from the <code>JavaFX Application Thread</code>.
+ */
+public final class History {
+
+    /*
+    ###########################
+    #      STATIC FIELDS      #
+    ###########################
+    */
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    /*
+    ###########################
+    #          FIELDS         #
+    ###########################
+    */
+
+    private final String[] entries;
+
+    private final boolean ignoreDuplicates;
+
+    private final HistoryStore store;
+
+    private final HistoryIndex index;
+
+    // the thread on which the store is accessed, in the order the accesses were submitted
+    private final ExecutorService storeExecutor;
+
+    private volatile Consumer<? super IOException> errorHandler;
+
+    // the entries being loaded, or null once they have been merged
+    private CompletableFuture<List<String>> loading;
+
+    // the id of the next entry to be added; the id of the oldest entry is nextId - size
+    private int nextId;
+
+    // index of the oldest entry
+    private int head;
+
+    private int size;
+
+    // ranges from 0 (the oldest entry) to size (the empty line following the newest entry)
+    private int cursor;
+
+    /*
+    ###########################
+    #       CONSTRUCTORS      #
+    ###########################
+    */
+
+    public History() {
+        this(DEFAULT_CAPACITY, true, null);
+    }
+
+    public History(int capacity) {
+        this(capacity, true, null);
+    }
+
+    public History(int capacity, boolean ignoreDuplicates) {
+        this(capacity, ignoreDuplicates, null);
+    }
+
+    public History(int capacity, boolean ignoreDuplicates, HistoryStore store) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "The capacity must be positive."
+            );
+        }
+        this.entries = new String[capacity];
+        this.ignoreDuplicates = ignoreDuplicates;
+        this.store = store;
+        this.index = new HistoryIndex();
+        this.nextId = 0;
+        this.storeExecutor = (store == null) ? null : newStoreExecutor();
+        this.loading = (store == null) ? null : CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.load(capacity);
+            } catch (IOException e) {
+                onError(e);
+                return null;
+            }
+        }, storeExecutor);
+        this.head = 0;
+        this.size = 0;
+        this.cursor = 0;
+    }
+
+    /*
+    ###########################
+    #          METHODS        #
+    ###########################
+    */
+
+    /**
+     * Adds the specified <code>entry</code> to the end of this history, and resets the navigation.
+     * Empty entries, and if duplicates are ignored, entries equal to the newest entry, are not added.
+     * @param entry the entry to be added.
+     * @return <code>true</code> if the entry was added,
+     * otherwise <code>false</code>.
+     */
+    public boolean add(String entry) {
+        load();
+        cursor = size;
+        if (entry == null || entry.isEmpty() || (ignoreDuplicates && size > 0 && entry.equals(get(size - 1)))) {
+            return false;
+        }
+        push(entry);
+        cursor = size;
+        if (store != null) {
+            storeExecutor.execute(() -> {
+                try {
+                    store.append(entry);
+                } catch (IOException e) {
+                    onError(e);
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Moves the navigation one entry back.
+     * @return the previous entry, or <code>null</code> if the oldest entry has already been reached.
+     */
+    public String previous() {
+        load();
+        if (cursor == 0) {
+            return null;
+        }
+        return get(--cursor);
+    }
+
+    /**
+     * Moves the navigation one entry forward.
+     * @return the next entry, an empty String if the navigation moved past the newest entry,
+     * or <code>null</code> if it already had.
+     */
+    public String next() {
+        load();
+        if (cursor >= size) {
+            return null;
+        }
+        return (++cursor == size) ? "" : get(cursor);
+    }
+
+    /**
+     * Resets the navigation to the empty line following the newest entry.
+     */
+    public void reset() {
+        load();
+        cursor = size;
+    }
+
+    /**
+     * Returns the index of the newest entry that contains the specified <code>query</code>,
+     * and whose index is less than the specified <code>before</code>.
+     * @param query the String to search for.
+     * @param before the exclusive upper bound, e.g. {@link History#size()} to search the whole history.
+     * @return the index of the matching entry, or <code>-1</code> if there is none.
+     */
+    public int search(String query, int before) {
+        load();
+        before = Math.min(before, size);
+        if (query == null || query.isEmpty() || before <= 0) {
+            return -1;
+        }
+        int first = nextId - size;
+        if (query.length() < HistoryIndex.N) {
+            // too short to be indexed, but as such likely to match one of the newest entries
+            for (int i = before - 1; i >= 0; i--) {
+                if (get(i).contains(query)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int id = index.search(query, first + before, i -> get(i - first));
+        return (id == -1) ? -1 : id - first;
+    }
+
+    /**
+     * Returns the entry at the specified <code>index</code>.
+     * @param index the index of the entry, where <code>0</code> is the oldest entry.
+     * @return the entry at the specified index.
+     */
+    public String get(int index) {
+        load();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", Size: " + size
+            );
+        }
+        return entries[(head + index) % entries.length];
+    }
+
+    /**
+     * @return the number of entries in this history.
+     */
+    public int size() {
+        load();
+        return size;
+    }
+
+    /**
+     * @return the maximum number of entries to be retained by this history.
+     */
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * @return whether an entry equal to the newest entry is ignored.
+     */
+    public boolean isIgnoreDuplicates() {
+        return ignoreDuplicates;
+    }
+
+    /**
+     * Specify the handler to be passed any <code>IOException</code> thrown by the <code>HistoryStore</code>.
+     * The handler is called on the thread that accesses the store. If there is none, the exception is passed to
+     * the uncaught exception handler of said thread.
+     * @param errorHandler the handler, or <code>null</code>.
+     */
+    public void setErrorHandler(Consumer<? super IOException> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * @return the handler to be passed any <code>IOException</code> thrown by the <code>HistoryStore</code>,
+     * or <code>null</code> if there is none.
+     */
+    public Consumer<? super IOException> getErrorHandler() {
+        return errorHandler;
+    }
+
+    /**
+     * Clears the contents of this history, including the contents of its <code>HistoryStore</code>,
+     * and discards any entry that has yet to be loaded.
+     */
+    public void clear() {
+        Arrays.fill(entries, null);
+        index.clear();
+        head = 0;
+        size = 0;
+        cursor = 0;
+        loading = null;
+        if (store != null) {
+            storeExecutor.execute(() -> {
+                try {
+                    store.clear();
+                } catch (IOException e) {
+                    onError(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Waits until every access of the <code>HistoryStore</code> that has been submitted has completed,
+     * and merges the loaded entries, if any.
+     */
+    void awaitStore() {
+        if (store != null) {
+            CompletableFuture.runAsync(() -> { }, storeExecutor).join();
+            load();
+        }
+    }
+
+    private void push(String entry) {
+        if (size == entries.length) {
+            index.remove(nextId - size, entries[head]);
+            entries[head] = entry;
+            head = (head + 1) % entries.length;
+        } else {
+            entries[(head + size++) % entries.length] = entry;
+        }
+        index.add(nextId++, entry);
+    }
+
+    /**
+     * Merges the loaded entries ahead of any entry that has been added since construction, if they have
+     * been loaded; the calling thread never waits for them.
+     */
+    private void load() {
+        CompletableFuture<List<String>> loading = this.loading;
+        if (loading == null || !loading.isDone()) {
+            return;
+        }
+        this.loading = null;
+        List<String> list = loading.join();
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        String[] added = new String[size];
+        for (int i = 0; i < size; i++) {
+            added[i] = entries[(head + i) % entries.length];
+        }
+        Arrays.fill(entries, null);
+        index.clear();
+        head = 0;
+        size = 0;
+        for (String entry : list) {
+            if (!(ignoreDuplicates && size > 0 && entry.equals(get(size - 1)))) {
+                push(entry);
+            }
+        }
+        for (String entry : added) {
+            if (!(ignoreDuplicates && size > 0 && entry.equals(get(size - 1)))) {
+                push(entry);
+            }
+        }
+        cursor = size;
+    }
+
+    private void onError(IOException e) {
+        Consumer<? super IOException> errorHandler = this.errorHandler;
+        if (errorHandler != null) {
+            errorHandler.accept(e);
+        } else {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private static ExecutorService newStoreExecutor() {
+        // a single thread, that terminates once idle
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "history-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
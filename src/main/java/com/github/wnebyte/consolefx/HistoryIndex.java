@@ -0,0 +1,157 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * This class represents a trigram index over the entries of a {@link History}.
+ * <br/>
+ * Each entry is identified by an ever increasing id, and each trigram maps to the ascending ids of the entries
+ * that contain it. As entries are evicted oldest first, an evicted id is always found at the front of its postings.
+ */
+final class HistoryIndex {
+
+    static final int N = 3;
+
+    private final Map<Long, Postings> index;
+
+    HistoryIndex() {
+        this.index = new HashMap<>();
+    }
+
+    /**
+     * Indexes the specified <code>entry</code> under the specified <code>id</code>,
+     * which must be greater than the id of any previously indexed entry.
+     */
+    void add(int id, String entry) {
+        for (int i = 0; i + N <= entry.length(); i++) {
+            Long key = key(entry, i);
+            Postings postings = index.get(key);
+            if (postings == null) {
+                index.put(key, postings = new Postings());
+            }
+            // an entry may contain the same trigram more than once
+            if (postings.isEmpty() || postings.last() != id) {
+                postings.add(id);
+            }
+        }
+    }
+
+    /**
+     * Removes the specified <code>entry</code>, which must be the oldest indexed entry.
+     */
+    void remove(int id, String entry) {
+        for (int i = 0; i + N <= entry.length(); i++) {
+            Long key = key(entry, i);
+            Postings postings = index.get(key);
+            if (postings != null && !postings.isEmpty() && postings.first() == id) {
+                postings.removeFirst();
+                if (postings.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        index.clear();
+    }
+
+    /**
+     * Returns the id of the newest entry that contains the specified <code>query</code>,
+     * and whose id is less than the specified <code>before</code>.
+     * @param query a String of at least {@link HistoryIndex#N} chars.
+     * @param before the exclusive upper bound.
+     * @param entries a function that returns the entry for an indexed id.
+     * @return the id of the matching entry, or <code>-1</code> if there is none.
+     */
+    int search(String query, int before, IntFunction<String> entries) {
+        Postings candidates = null;
+        // the rarest trigram of the query yields the fewest candidates to be verified
+        for (int i = 0; i + N <= query.length(); i++) {
+            Postings postings = index.get(key(query, i));
+            if (postings == null) {
+                return -1;
+            }
+            if (candidates == null || postings.size() < candidates.size()) {
+                candidates = postings;
+            }
+        }
+        if (candidates == null) {
+            return -1;
+        }
+        for (int i = candidates.indexBefore(before); i >= 0; i--) {
+            int id = candidates.get(i);
+            if (entries.apply(id).contains(query)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private static Long key(String s, int offset) {
+        return ((long) s.charAt(offset) << 32) | ((long) s.charAt(offset + 1) << 16) | s.charAt(offset + 2);
+    }
+
+    /**
+     * A growable array of ascending ids, that supports removal from the front in constant amortized time.
+     */
+    private static final class Postings {
+
+        private int[] arr = new int[4];
+
+        private int start;
+
+        private int end;
+
+        void add(int id) {
+            if (end == arr.length) {
+                if (start > arr.length / 2) {
+                    System.arraycopy(arr, start, arr, 0, end - start);
+                } else {
+                    arr = Arrays.copyOfRange(arr, start, arr.length * 2 + start);
+                }
+                end -= start;
+                start = 0;
+            }
+            arr[end++] = id;
+        }
+
+        void removeFirst() {
+            start++;
+        }
+
+        int first() {
+            return arr[start];
+        }
+
+        int last() {
+            return arr[end - 1];
+        }
+
+        int get(int i) {
+            return arr[start + i];
+        }
+
+        int size() {
+            return end - start;
+        }
+
+        boolean isEmpty() {
+            return start == end;
+        }
+
+        /**
+         * Returns the index of the greatest id that is less than the specified <code>id</code>, or <code>-1</code>.
+         */
+        int indexBefore(int id) {
+            int i = Arrays.binarySearch(arr, start, end, id);
+            if (i < 0) {
+                i = -(i + 1);
+            }
+            return i - start - 1;
+        }
+    }
+}
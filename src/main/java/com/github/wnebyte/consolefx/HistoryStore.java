@@ -0,0 +1,31 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.io.IOException;
+
+/**
+ * This interface declares the methods used by a {@link History} to persist its entries.
+ */
+public interface HistoryStore {
+
+    /**
+     * Loads the persisted entries, ordered from oldest to newest.
+     * @param max the maximum number of entries to be returned; only the newest entries are of interest.
+     * @return the persisted entries.
+     * @throws IOException if an I/O error occurs.
+     */
+    List<String> load(int max) throws IOException;
+
+    /**
+     * Persists the specified <code>entry</code>.
+     * @param entry the entry to be persisted.
+     * @throws IOException if an I/O error occurs.
+     */
+    void append(String entry) throws IOException;
+
+    /**
+     * Removes all the persisted entries.
+     * @throws IOException if an I/O error occurs.
+     */
+    void clear() throws IOException;
+}
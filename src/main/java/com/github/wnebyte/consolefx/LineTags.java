@@ -0,0 +1,72 @@
+package com.github.wnebyte.consolefx;
+
+/**
+ * This class holds the tag, and the sequence number, of each line of a document, in the order of the lines.
+ * Lines can be appended to the end, and removed from the start, in amortized constant time.
+ */
+final class LineTags {
+
+    private int[] tags;
+
+    private long[] seqs;
+
+    // the index of the first line
+    private int head;
+
+    private int size;
+
+    LineTags() {
+        this(16);
+    }
+
+    LineTags(int capacity) {
+        this.tags = new int[Math.max(16, capacity)];
+        this.seqs = new long[tags.length];
+    }
+
+    void add(int tag, long seq) {
+        if (head + size == tags.length) {
+            // grows the arrays unless at least half of them precede the first line
+            int capacity = (size < tags.length / 2) ? tags.length : tags.length * 2;
+            int[] tags = new int[capacity];
+            long[] seqs = new long[capacity];
+            System.arraycopy(this.tags, head, tags, 0, size);
+            System.arraycopy(this.seqs, head, seqs, 0, size);
+            this.tags = tags;
+            this.seqs = seqs;
+            head = 0;
+        }
+        tags[head + size] = tag;
+        seqs[head + size] = seq;
+        size++;
+    }
+
+    int getTag(int line) {
+        return tags[head + line];
+    }
+
+    long getSeq(int line) {
+        return seqs[head + line];
+    }
+
+    /**
+     * Removes the specified number of lines from the start.
+     */
+    void removeFirst(int n) {
+        n = Math.min(n, size);
+        head += n;
+        size -= n;
+        if (size == 0) {
+            head = 0;
+        }
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+}
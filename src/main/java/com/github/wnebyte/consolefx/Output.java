@@ -0,0 +1,89 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents a unit of work that has been queued for a {@link Console}.
+ * An <code>Output</code> is either a sequence of {@link StyleSegment}s, optionally followed by a new line,
+ * that are to be appended to the console, or a command that is to be run on the <code>JavaFX Application Thread</code>
+ * once every preceding <code>Output</code> has been applied.
+ * <br/>
+ * A command that modifies the contents of the console is deferred while the console is paused, whereas any other
+ * command is run once every preceding <code>Output</code> has been applied, or held.
+ */
+final class Output {
+
+    private final List<StyleSegment> styleSegments;
+
+    private final boolean newline;
+
+    private final Runnable command;
+
+    // whether the command modifies the contents of the console
+    private final boolean modifying;
+
+    // the tag of the channel that printed the segments, or 0 if they were not printed by a channel
+    private final int channel;
+
+    private Output(List<StyleSegment> styleSegments, boolean newline, Runnable command, boolean modifying,
+                   int channel) {
+        this.styleSegments = styleSegments;
+        this.newline = newline;
+        this.command = command;
+        this.modifying = modifying;
+        this.channel = channel;
+    }
+
+    static Output of(StyleSegment styleSegment, boolean newline) {
+        return new Output(Collections.singletonList(styleSegment), newline, null, false, 0);
+    }
+
+    static Output of(List<StyleSegment> styleSegments, boolean newline) {
+        return new Output(styleSegments, newline, null, false, 0);
+    }
+
+    static Output of(List<StyleSegment> styleSegments, boolean newline, int channel) {
+        return new Output(styleSegments, newline, null, false, channel);
+    }
+
+    static Output command(Runnable command) {
+        return new Output(Collections.emptyList(), false, command, true, 0);
+    }
+
+    static Output command(Runnable command, boolean modifying) {
+        return new Output(Collections.emptyList(), false, command, modifying, 0);
+    }
+
+    boolean isCommand() {
+        return (command != null);
+    }
+
+    List<StyleSegment> getStyleSegments() {
+        return styleSegments;
+    }
+
+    /**
+     * @return <code>true</code> if the segments are to be followed by a new line,
+     * otherwise <code>false</code>.
+     */
+    boolean isNewline() {
+        return newline;
+    }
+
+    /**
+     * @return <code>true</code> if the command modifies the contents of the console,
+     * otherwise <code>false</code>.
+     */
+    boolean isModifying() {
+        return modifying;
+    }
+
+    Runnable getCommand() {
+        return command;
+    }
+
+    int getChannel() {
+        return channel;
+    }
+}
@@ -0,0 +1,216 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import org.fxmisc.richtext.StyleClassedTextArea;
+import org.fxmisc.richtext.model.StyledSegment;
+import org.fxmisc.richtext.model.ReadOnlyStyledDocumentBuilder;
+import static com.github.wnebyte.consolefx.util.Chars.LINE_SEPARATOR_UNIX;
+import static com.github.wnebyte.consolefx.util.Chars.CARRIAGE_RETURN;
+
+/**
+ * This class accumulates styled text that is to be appended to a <code>StyleClassedTextArea</code>,
+ * so that any number of print calls can be applied using a single edit.
+ * <p>
+ * The text is accumulated as a sequence of paragraphs that are made up of styled segments, from which
+ * a <code>ReadOnlyStyledDocument</code> is built and appended to the area once the batch is flushed,
+ * so that no separate pass is required to style the appended text.
+ * <p>
+ * A carriage return that is not followed by a line separator causes any text that follows it to replace the
+ * current line. If the current line has already been appended to the area, the batch is flushed by replacing
+ * the last paragraph of the area, so that any number of rewrites of the line within a single batch cost a
+ * single edit, and add no paragraphs.
+ */
+final class OutputBatch {
+
+    private final StyleClassedTextArea area;
+
+    private ReadOnlyStyledDocumentBuilder<Collection<String>, String, Collection<String>> builder;
+
+    private List<StyledSegment<String, Collection<String>>> paragraph;
+
+    private boolean empty;
+
+    private boolean newline;
+
+    // whether a carriage return has been appended, but no text or line separator following it
+    private boolean carriageReturn;
+
+    // whether the last paragraph of the area is to be replaced, rather than appended to
+    private boolean rewrite;
+
+    // the number of line separators and chars appended since the batch was last flushed
+    private int pendingLines;
+
+    private long pendingChars;
+
+    // the number of line separators and chars appended over the lifetime of this batch
+    private long lines;
+
+    private long chars;
+
+    OutputBatch(StyleClassedTextArea area) {
+        this.area = area;
+        reset();
+    }
+
+    private void reset() {
+        this.builder = new ReadOnlyStyledDocumentBuilder<>(area.getSegOps(), area.getInitialParagraphStyle());
+        this.paragraph = new ArrayList<>();
+        this.empty = true;
+        this.newline = false;
+        this.rewrite = false;
+        this.pendingLines = 0;
+        this.pendingChars = 0;
+    }
+
+    /**
+     * Appends the specified <code>text</code> with the specified <code>styleClasses</code> to this batch.
+     * @param text         to be appended.
+     * @param styleClasses to be applied to the text.
+     */
+    void append(String text, Collection<String> styleClasses) {
+        int length = text.length();
+        if (length == 0) {
+            return;
+        }
+        chars += length;
+        pendingChars += length;
+        if (carriageReturn || text.indexOf(CARRIAGE_RETURN) != -1) {
+            appendCarriageReturns(text, styleClasses);
+            return;
+        }
+        int start = 0;
+        int end;
+        while ((end = text.indexOf(LINE_SEPARATOR_UNIX, start)) != -1) {
+            if (start < end) {
+                paragraph.add(new StyledSegment<>(text.substring(start, end), styleClasses));
+            }
+            newParagraph();
+            start = end + 1;
+        }
+        if (start < length) {
+            paragraph.add(new StyledSegment<>((start == 0) ? text : text.substring(start), styleClasses));
+        }
+        empty = false;
+    }
+
+    private void appendCarriageReturns(String text, Collection<String> styleClasses) {
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            char c = (i < length) ? text.charAt(i) : LINE_SEPARATOR_UNIX;
+            if (c != LINE_SEPARATOR_UNIX && c != CARRIAGE_RETURN) {
+                continue;
+            }
+            if (start < i) {
+                if (carriageReturn) {
+                    returnCarriage();
+                }
+                paragraph.add(new StyledSegment<>(text.substring(start, i), styleClasses));
+            }
+            if (i < length) {
+                if (c == LINE_SEPARATOR_UNIX) {
+                    // a carriage return that is followed by a line separator is a line separator
+                    carriageReturn = false;
+                    newParagraph();
+                } else {
+                    carriageReturn = true;
+                }
+            }
+            start = i + 1;
+        }
+        if (!paragraph.isEmpty() || newline || rewrite) {
+            empty = false;
+        }
+    }
+
+    /**
+     * Discards the current line, so that the text that follows replaces it.
+     */
+    private void returnCarriage() {
+        carriageReturn = false;
+        paragraph.clear();
+        if (!newline) {
+            // the current line began in the area, before this batch
+            rewrite = true;
+        }
+    }
+
+    private void newParagraph() {
+        if (paragraph.isEmpty()) {
+            paragraph.add(new StyledSegment<>("", area.getInitialTextStyle()));
+        }
+        builder.addParagraph(paragraph);
+        paragraph = new ArrayList<>();
+        newline = true;
+        lines++;
+        pendingLines++;
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Appends the contents of this batch to the end of the <code>area</code> and resets this batch.
+     * @return <code>true</code> if the appended text contained a line separator,
+     * otherwise <code>false</code>.
+     */
+    boolean flush() {
+        if (isEmpty()) {
+            return false;
+        }
+        if (paragraph.isEmpty()) {
+            paragraph.add(new StyledSegment<>("", area.getInitialTextStyle()));
+        }
+        builder.addParagraph(paragraph);
+        boolean newline = this.newline;
+        if (rewrite) {
+            int paragraph = area.getParagraphs().size() - 1;
+            area.replace(area.getAbsolutePosition(paragraph, 0), area.getLength(), builder.build());
+        } else {
+            area.append(builder.build());
+        }
+        reset();
+        return newline;
+    }
+
+    /**
+     * @return <code>true</code> if the text that is appended next begins a new line, i.e. if the current line,
+     * whether it began in this batch or in the <code>area</code>, holds no text,
+     * otherwise <code>false</code>.
+     */
+    boolean isLineStart() {
+        if (!paragraph.isEmpty() || carriageReturn) {
+            return false;
+        }
+        if (newline || rewrite) {
+            return true;
+        }
+        return area.getParagraphLength(area.getParagraphs().size() - 1) == 0;
+    }
+
+    /**
+     * @return the number of line separators appended since this batch was last flushed.
+     */
+    int getPendingLines() {
+        return pendingLines;
+    }
+
+    /**
+     * @return the number of chars appended since this batch was last flushed.
+     */
+    long getPendingChars() {
+        return pendingChars;
+    }
+
+    long getLines() {
+        return lines;
+    }
+
+    long getChars() {
+        return chars;
+    }
+}
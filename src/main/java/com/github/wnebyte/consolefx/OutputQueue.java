@@ -0,0 +1,119 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class represents a bounded, lock-free, multi-producer single-consumer queue of {@link Output}s.
+ * Any number of threads may offer to the queue, while it is drained by the
+ * <code>JavaFX Application Thread</code> only.
+ * <p>
+ * The queue is an intrusive linked list of nodes, as described by Dmitry Vyukov. A producer links its node using
+ * a single atomic swap of the tail, which never fails or retries, so the order in which the swaps take place is the
+ * order in which the outputs are polled; in particular, the outputs of a single thread are polled in the order they
+ * were offered. As there is a single consumer, polling requires no atomic operations.
+ * <p>
+ * The capacity is a soft bound: the number of outputs offered is counted by the producers, and the number polled
+ * by the consumer, so concurrent producers may exceed the capacity by at most one output each.
+ */
+final class OutputQueue {
+
+    private static final class Node {
+
+        private Output output;
+
+        private volatile Node next;
+
+        private Node(Output output) {
+            this.output = output;
+        }
+    }
+
+    private final AtomicReference<Node> tail;
+
+    // only accessed by the consumer
+    private Node head;
+
+    private final AtomicLong offered;
+
+    // only written by the consumer
+    private volatile long polled;
+
+    private final int capacity;
+
+    OutputQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "The capacity must be greater than zero."
+            );
+        }
+        Node stub = new Node(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+        this.offered = new AtomicLong(0);
+        this.polled = 0;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Inserts the specified <code>output</code> into this queue if it is possible to do so
+     * without exceeding its capacity.
+     * @param output to be inserted.
+     * @return <code>true</code> if the Output was inserted,
+     * otherwise <code>false</code>.
+     */
+    boolean offer(Output output) {
+        return offer(output, capacity);
+    }
+
+    /**
+     * Inserts the specified <code>output</code> into this queue if it is possible to do so
+     * without exceeding the specified <code>limit</code>, which may exceed the capacity of this queue.
+     * @param output to be inserted.
+     * @param limit  the maximum number of outputs that may be queued.
+     * @return <code>true</code> if the Output was inserted,
+     * otherwise <code>false</code>.
+     */
+    boolean offer(Output output, int limit) {
+        if (offered.get() - polled >= limit) {
+            return false;
+        }
+        offered.getAndIncrement();
+        Node node = new Node(output);
+        Node prev = tail.getAndSet(node);
+        // between the swap and this write, the node is not yet reachable from the head
+        prev.next = node;
+        return true;
+    }
+
+    /**
+     * Retrieves and removes the head of this queue.
+     * May only be called by the consumer.
+     * @return the head of this queue, or <code>null</code> if it is empty,
+     * or if the next output has been offered but not yet linked.
+     */
+    Output poll() {
+        Node next = head.next;
+        if (next == null) {
+            return null;
+        }
+        Output output = next.output;
+        // the node becomes the stub, which must not retain its output
+        next.output = null;
+        head = next;
+        polled = polled + 1;
+        return output;
+    }
+
+    int size() {
+        return (int) Math.max(0, offered.get() - polled);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+}
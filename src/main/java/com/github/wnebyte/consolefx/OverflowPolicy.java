@@ -0,0 +1,36 @@
+package com.github.wnebyte.consolefx;
+
+/**
+ * This enum declares the policies that a {@link Console} can apply to output that is printed while its output
+ * queue is full, i.e. when output is printed faster than it can be appended on the
+ * <code>JavaFX Application Thread</code>, or to output that exceeds the rate limit of its {@link Printer}.
+ * <p>
+ * Output that is dropped is accounted for by a single line that states the number of outputs, i.e. print calls,
+ * suppressed, and by {@link ConsoleMetrics#getDroppedLines()}. The line is appended once the current line has been
+ * completed, so that it never splits a line.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The printing thread waits until the output can be queued, so that no output is lost.
+     * The <code>JavaFX Application Thread</code> is never blocked; it drains the queue instead.
+     */
+    BLOCK,
+
+    /**
+     * The output is always queued, and the oldest queued output is dropped, so that only the most recent output
+     * is appended.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The output is dropped, so that the printing thread never waits.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Every sixteenth output is queued regardless, and any other output is dropped, so that a sample of the output
+     * is appended.
+     */
+    SAMPLE
+}
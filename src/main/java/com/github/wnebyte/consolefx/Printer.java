@@ -2,173 +2,486 @@ package com.github.wnebyte.consolefx;
 
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.List;
 import java.util.Locale;
+import java.util.ArrayList;
+import java.util.Collections;
+import static com.github.wnebyte.consolefx.util.Chars.LINE_SEPARATOR_UNIX;
 
+/**
+ * This class represents a <code>PrintStream</code> that prints to a {@link Console}.
+ * <p>
+ * Any text that is printed using the <code>print</code> and <code>println</code> methods is passed to the
+ * console as is, while any bytes that are written to this stream, for instance by a third party library
+ * after a call to {@link System#setOut(PrintStream)}, are decoded using the specified <code>Charset</code>
+ * and buffered. The buffered text is passed to the console in chunks, whenever a line separator
+ * has been written, the buffer is full, or when this stream is flushed.
+ * <p>
+ * Unless disabled, any <code>ANSI</code> escape sequences contained within the printed text are parsed,
+ * and any <code>SGR</code> sequence is translated into style classes, for instance <code>ansi-fg-red</code>.
+ * <p>
+ * The decoder and the parser are guarded by a lock that is released before the text is passed to the console,
+ * so that a thread that waits for the console to catch up never holds it, nor the monitor of this stream.
+ */
 public abstract class Printer extends PrintStream {
 
-    private static final OutputStream STUB_OUTPUT_STREAM = new OutputStream() {
-        /**
-         * @throws UnsupportedOperationException if called.
-         */
-        @Override
-        public void write(int b) {
-            throw new UnsupportedOperationException(
-                    "This OutputStream cannot be written to."
-            );
-        }
-    };
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Charset charset;
+
+    private final DecodingOutputStream stream;
+
+    // guards the stream, the parser and the decoded text; never held while passing text to the console
+    private final Object lock;
+
+    private final AnsiParser parser;
+
+    // the chunks of text that have been decoded and parsed, but not yet passed to the console; guarded by lock
+    private List<List<StyleSegment>> decoded;
+
+    private volatile boolean ansiEnabled;
+
+    private volatile RateLimiter rateLimiter;
 
     public Printer() {
-        super(STUB_OUTPUT_STREAM);
+        this(Charset.defaultCharset());
+    }
+
+    public Printer(Charset charset) {
+        super(new DecodingOutputStream(charset), false);
+        this.charset = charset;
+        this.stream = (DecodingOutputStream) out;
+        this.lock = new Object();
+        this.parser = new AnsiParser();
+        this.ansiEnabled = true;
+        this.stream.printer = this;
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Prints the specified <code>styleSegments</code> to the console.
+     * @param styleSegments to be print.
+     * @param newline       whether a new line should be print following the segments.
      */
-    @Override
-    public PrintStream append(char c) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    protected abstract void printSegments(List<StyleSegment> styleSegments, boolean newline);
+
+    /**
+     * Prints the specified <code>styleSegments</code> to the console, unless doing so would block the calling thread.
+     * By default, the segments are printed using {@link Printer#printSegments(List, boolean)}.
+     * @param styleSegments to be print.
+     * @param newline       whether a new line should be print following the segments.
+     * @return <code>true</code> if the segments were accepted,
+     * otherwise <code>false</code>.
+     */
+    protected boolean offerSegments(List<StyleSegment> styleSegments, boolean newline) {
+        printSegments(styleSegments, newline);
+        return true;
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Passes any text that has been decoded, but not yet printed, to the console.
+     * Should be called before printing to the console directly, to preserve the order of the output.
      */
-    @Override
-    public PrintStream append(CharSequence csq) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    protected final void flushBuffer() {
+        List<List<StyleSegment>> decoded;
+        synchronized (lock) {
+            stream.flushChars();
+            decoded = takeDecoded();
+        }
+        printDecoded(decoded);
+    }
+
+    private void print(String text, boolean newline) {
+        print(text, newline, false);
+    }
+
+    private boolean print(String text, boolean newline, boolean offer) {
+        List<List<StyleSegment>> decoded;
+        List<StyleSegment> styleSegments;
+        synchronized (lock) {
+            stream.flushChars();
+            decoded = takeDecoded();
+            if (ansiEnabled && parser.requiresParsing(text)) {
+                char[] chars = text.toCharArray();
+                styleSegments = parse(chars, 0, chars.length);
+            } else {
+                List<String> styleClasses = ansiEnabled ? parser.getStyleClasses() : Collections.emptyList();
+                styleSegments = Collections.singletonList(new StyleSegment(text, styleClasses));
+            }
+        }
+        // any decoded text precedes the printed text
+        printDecoded(decoded);
+        if (styleSegments.isEmpty() && !newline) {
+            return true;
+        }
+        if (offer) {
+            return offerSegments(styleSegments, newline);
+        }
+        printSegments(styleSegments, newline);
+        return true;
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Parses the specified range of <code>chars</code>, which must be called while holding the <code>lock</code>.
+     * @return the parsed segments, which are empty if the range held only escape sequences.
      */
-    @Override
-    public PrintStream append(CharSequence csq, int start, int end) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    private List<StyleSegment> parse(char[] chars, int off, int len) {
+        if (ansiEnabled) {
+            List<StyleSegment> styleSegments = new ArrayList<>();
+            parser.parse(chars, off, len, (text, styleClasses) ->
+                    styleSegments.add(new StyleSegment(text, styleClasses)));
+            return styleSegments;
+        } else {
+            return Collections.singletonList(new StyleSegment(new String(chars, off, len), Collections.emptyList()));
+        }
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Parses a chunk of decoded text, and holds it until it is passed to the console once the
+     * <code>lock</code> has been released.
      */
-    @Override
-    public boolean checkError() {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    private void decoded(char[] chars, int off, int len) {
+        List<StyleSegment> styleSegments = parse(chars, off, len);
+        if (styleSegments.isEmpty()) {
+            return;
+        }
+        if (decoded == null) {
+            decoded = new ArrayList<>(2);
+        }
+        decoded.add(styleSegments);
+    }
+
+    private List<List<StyleSegment>> takeDecoded() {
+        List<List<StyleSegment>> decoded = this.decoded;
+        this.decoded = null;
+        return decoded;
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Passes the specified chunks of decoded text to the console, in order.
      */
-    @Override
-    public void clearError() {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    private void printDecoded(List<List<StyleSegment>> decoded) {
+        if (decoded != null) {
+            for (List<StyleSegment> styleSegments : decoded) {
+                printSegments(styleSegments, false);
+            }
+        }
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Prints the specified <code>text</code>, unless doing so would block the calling thread, as the console is
+     * unable to keep up with the output, or as the rate limit of this <code>Printer</code> has been exceeded.
+     * Any <code>ANSI</code> escape sequence is parsed regardless.
+     * @param s to be print.
+     * @return <code>true</code> if the text was accepted,
+     * otherwise <code>false</code>.
      */
-    @Override
-    public void setError() {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    public boolean offer(String s) {
+        return print(String.valueOf(s), false, true);
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Prints the specified <code>text</code> and a new line, unless doing so would block the calling thread,
+     * as the console is unable to keep up with the output, or as the rate limit of this <code>Printer</code>
+     * has been exceeded.
+     * @param s to be print.
+     * @return <code>true</code> if the text was accepted,
+     * otherwise <code>false</code>.
      */
-    @Override
-    public void close() {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    public boolean offerln(String s) {
+        return print(String.valueOf(s), true, true);
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Limits the rate of this <code>Printer</code> using a token bucket, so that at most <code>burst</code> prints
+     * are accepted at once, and <code>rate</code> prints per second on average; where a print is any call to a
+     * <code>print</code>, <code>println</code> or <code>offer</code> method, or any chunk of written text.
+     * Any print in excess of the rate is handled according to the {@link OverflowPolicy} of the console.
+     * @param rate  the number of prints per second.
+     * @param burst the maximum number of prints that may be accepted at once.
      */
-    @Override
-    public void flush() {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    public void setRateLimit(double rate, int burst) {
+        this.rateLimiter = new RateLimiter(rate, burst);
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Removes the rate limit of this <code>Printer</code>, if any.
      */
-    @Override
-    public void write(int i) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    public void removeRateLimit() {
+        this.rateLimiter = null;
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * @return the token bucket that limits the rate of this <code>Printer</code>,
+     * or <code>null</code> if its rate is unlimited.
      */
-    @Override
-    public void write(byte[] buf, int off, int len) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    RateLimiter getRateLimiter() {
+        return rateLimiter;
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Specify whether <code>ANSI</code> escape sequences should be parsed.
+     * If disabled, the text is print as is.
+     * @param value a boolean.
      */
-    @Override
-    public void write(byte[] b) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    public void setAnsiEnabled(boolean value) {
+        synchronized (lock) {
+            this.ansiEnabled = value;
+            this.parser.reset();
+        }
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Returns whether <code>ANSI</code> escape sequences are parsed by this <code>Printer</code>.
+     * @return <code>true</code> if escape sequences are parsed,
+     * otherwise <code>false</code>.
      */
-    @Override
-    public PrintStream printf(String format, Object... args) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    public boolean isAnsiEnabled() {
+        return ansiEnabled;
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * @return the <code>Charset</code> used to decode any bytes written to this <code>Printer</code>.
      */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    @Override
+    public void print(boolean b) {
+        print(String.valueOf(b), false);
+    }
+
+    @Override
+    public void print(char c) {
+        print(String.valueOf(c), false);
+    }
+
+    @Override
+    public void print(char[] s) {
+        print(String.valueOf(s), false);
+    }
+
     @Override
-    public PrintStream printf(Locale l, String format, Object... args) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    public void print(double d) {
+        print(String.valueOf(d), false);
+    }
+
+    @Override
+    public void print(float f) {
+        print(String.valueOf(f), false);
+    }
+
+    @Override
+    public void print(int i) {
+        print(String.valueOf(i), false);
+    }
+
+    @Override
+    public void print(long l) {
+        print(String.valueOf(l), false);
+    }
+
+    @Override
+    public void print(String s) {
+        print(String.valueOf(s), false);
+    }
+
+    @Override
+    public void print(Object o) {
+        print(String.valueOf(o), false);
+    }
+
+    @Override
+    public void println(boolean x) {
+        print(String.valueOf(x), true);
+    }
+
+    @Override
+    public void println(char x) {
+        print(String.valueOf(x), true);
+    }
+
+    @Override
+    public void println(char[] x) {
+        print(String.valueOf(x), true);
+    }
+
+    @Override
+    public void println(double x) {
+        print(String.valueOf(x), true);
+    }
+
+    @Override
+    public void println(float x) {
+        print(String.valueOf(x), true);
+    }
+
+    @Override
+    public void println(int x) {
+        print(String.valueOf(x), true);
+    }
+
+    @Override
+    public void println(long x) {
+        print(String.valueOf(x), true);
+    }
+
+    @Override
+    public void println(String x) {
+        print(String.valueOf(x), true);
+    }
+
+    @Override
+    public void println(Object x) {
+        print(String.valueOf(x), true);
+    }
+
+    @Override
+    public void println() {
+        print("", true);
+    }
+
+    @Override
+    public void write(int b) {
+        List<List<StyleSegment>> decoded;
+        synchronized (lock) {
+            stream.write(b);
+            decoded = takeDecoded();
+        }
+        printDecoded(decoded);
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        List<List<StyleSegment>> decoded;
+        synchronized (lock) {
+            stream.write(buf, off, len);
+            decoded = takeDecoded();
+        }
+        printDecoded(decoded);
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Passes any buffered text to the console.
      */
+    @Override
+    public void flush() {
+        flushBuffer();
+    }
+
     @Override
     public PrintStream format(String format, Object... args) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+        print(String.format(format, args), false);
+        return this;
+    }
+
+    @Override
+    public PrintStream format(Locale l, String format, Object... args) {
+        print(String.format(l, format, args), false);
+        return this;
     }
 
     /**
-     * @throws UnsupportedOperationException if called.
+     * Flushes this <code>Printer</code>. As the console outlives any of its printers,
+     * the underlying stream is never closed.
      */
     @Override
-    public PrintStream format(Locale l, String format, Object... args) {
-        throw new UnsupportedOperationException(
-                "This method is unsupported."
-        );
+    public void close() {
+        flush();
+    }
+
+    /**
+     * This class decodes the bytes that are written to a <code>Printer</code>, and passes the decoded
+     * text to the printer in chunks; it is only accessed while holding the lock of the printer.
+     */
+    private static final class DecodingOutputStream extends OutputStream {
+
+        private final CharsetDecoder decoder;
+
+        private final ByteBuffer bytes;
+
+        private final CharBuffer chars;
+
+        private Printer printer;
+
+        private DecodingOutputStream(Charset charset) {
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.bytes = ByteBuffer.allocate(BUFFER_SIZE);
+            this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        }
+
+        @Override
+        public void write(int b) {
+            bytes.put((byte) b);
+            decode();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                int n = Math.min(len, bytes.remaining());
+                bytes.put(b, off, n);
+                off += n;
+                len -= n;
+                decode();
+            }
+        }
+
+        @Override
+        public void flush() {
+            flushChars();
+        }
+
+        @Override
+        public void close() {
+            flushChars();
+        }
+
+        /**
+         * Decodes the buffered bytes, and prints the decoded text up to and including the last line separator.
+         * If the decoded text does not fit in the buffer, the buffer is printed in full.
+         */
+        private void decode() {
+            bytes.flip();
+            int from = chars.position();
+            CoderResult result;
+            while ((result = decoder.decode(bytes, chars, false)).isOverflow()) {
+                flushChars();
+                from = 0;
+            }
+            bytes.compact();
+            if (result.isError()) {
+                return;
+            }
+            int to = chars.position();
+            for (int i = to - 1; i >= from; i--) {
+                if (chars.get(i) == LINE_SEPARATOR_UNIX) {
+                    flushChars(i + 1);
+                    break;
+                }
+            }
+        }
+
+        private void flushChars() {
+            flushChars(chars.position());
+        }
+
+        private void flushChars(int to) {
+            if (to == 0) {
+                return;
+            }
+            printer.decoded(chars.array(), chars.arrayOffset(), to);
+            chars.flip();
+            chars.position(to);
+            chars.compact();
+        }
     }
 }
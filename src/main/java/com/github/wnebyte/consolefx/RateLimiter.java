@@ -0,0 +1,59 @@
+package com.github.wnebyte.consolefx;
+
+/**
+ * This class represents a token bucket, that holds up to <code>burst</code> tokens, and that is refilled at a rate of
+ * <code>rate</code> tokens per second.
+ */
+final class RateLimiter {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double rate;
+
+    private final int burst;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    RateLimiter(double rate, int burst) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException(
+                    "The rate must be greater than zero."
+            );
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException(
+                    "The burst must be greater than zero."
+            );
+        }
+        this.rate = rate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token from the bucket if there is one.
+     * @return <code>0</code> if a token was taken,
+     * otherwise the number of nanoseconds until a token is available.
+     */
+    synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * rate / NANOS_PER_SECOND);
+        lastRefill = now;
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0L;
+        }
+        return Math.max(1L, (long) Math.ceil((1.0 - tokens) * NANOS_PER_SECOND / rate));
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    int getBurst() {
+        return burst;
+    }
+}
@@ -0,0 +1,389 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import org.fxmisc.richtext.model.Paragraph;
+import org.fxmisc.richtext.model.StyledSegment;
+
+/**
+ * This class represents an append-only, memory-mapped file that holds the paragraphs evicted from a
+ * {@link Console}, together with their style classes, so that the output of a session can be paged back into the
+ * <code>Console</code> once it no longer fits in memory.
+ * <p>
+ * The file is a sequence of records. A style record assigns an id to a list of style classes, the first time that
+ * the list is archived, and a paragraph record holds the segments of a paragraph, each as a style id and its text.
+ * Every number is encoded as a variable-length integer, and all text as UTF-8.
+ * <br/>
+ * The offset of every {@link ScrollbackArchive#INDEX_INTERVAL}th paragraph is held in memory, so that a paragraph
+ * is located by seeking to the nearest preceding offset, and skipping at most that many records.
+ * <p>
+ * The file is truncated, if it exists, and is written to through a region that is mapped
+ * {@link ScrollbackArchive#CHUNK_SIZE} bytes at a time; a region is unmapped as soon as it has been filled, so that
+ * at most one region is mapped at a time. Paragraphs are read through a buffer that is reused across reads,
+ * rather than through a mapping of their own.
+ */
+public final class ScrollbackArchive implements Closeable {
+
+    static final int INDEX_INTERVAL = 64;
+
+    static final int CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static final byte PARAGRAPH = 1;
+
+    private static final byte STYLE = 2;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final Map<List<String>, Integer> styleIds;
+
+    private final List<List<String>> styles;
+
+    // the offset of every INDEX_INTERVAL-th paragraph
+    private long[] index;
+
+    private int size;
+
+    private MappedByteBuffer chunk;
+
+    private long chunkOffset;
+
+    // the offset at which the next record is written
+    private long position;
+
+    private byte[] scratch;
+
+    // the buffer that paragraphs are read into, which grows as required
+    private ByteBuffer readBuffer;
+
+    private int scratchLength;
+
+    private boolean closed;
+
+    public ScrollbackArchive(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException(
+                    "The path must not be null."
+            );
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.styleIds = new HashMap<>();
+        this.styles = new ArrayList<>();
+        this.index = new long[16];
+        this.scratch = new byte[256];
+        this.readBuffer = ByteBuffer.allocate(64 * 1024);
+    }
+
+    /**
+     * Appends the specified <code>paragraph</code> to this archive.
+     * @param paragraph to be appended.
+     * @throws IOException if an I/O error occurs.
+     */
+    synchronized void append(Paragraph<?, String, Collection<String>> paragraph) throws IOException {
+        ensureOpen();
+        List<StyledSegment<String, Collection<String>>> segments = paragraph.getStyledSegments();
+        int[] ids = new int[segments.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = styleId(segments.get(i).getStyle());
+        }
+        if (size % INDEX_INTERVAL == 0) {
+            int i = size / INDEX_INTERVAL;
+            if (i == index.length) {
+                index = Arrays.copyOf(index, i * 2);
+            }
+            index[i] = position;
+        }
+        scratchLength = 0;
+        putByte(PARAGRAPH);
+        putVarInt(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            putVarInt(ids[i]);
+            putString(segments.get(i).getSegment());
+        }
+        write();
+        size++;
+    }
+
+    /**
+     * Reads <code>count</code> paragraphs, starting with the paragraph at the specified index,
+     * and passes the segments of each paragraph to the specified <code>action</code>, in order.
+     * @param from   the index of the first paragraph.
+     * @param count  the number of paragraphs.
+     * @param action to be passed the segments of each paragraph.
+     * @throws IOException if an I/O error occurs.
+     */
+    synchronized void read(int from, int count, Consumer<List<StyledSegment<String, Collection<String>>>> action)
+            throws IOException {
+        ensureOpen();
+        if (from < 0 || count < 0 || from + count > size) {
+            throw new IllegalArgumentException(
+                    "The range [" + from + ", " + (from + count) + ") is out of bounds; size is " + size + "."
+            );
+        }
+        if (count == 0) {
+            return;
+        }
+        int block = from / INDEX_INTERVAL;
+        int endBlock = (from + count + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+        long start = index[block];
+        long end = (endBlock * INDEX_INTERVAL < size) ? index[endBlock] : position;
+        ByteBuffer buffer = read(start, (int) (end - start));
+        int skip = from - block * INDEX_INTERVAL;
+        int read = 0;
+        while (read < count) {
+            byte type = buffer.get();
+            if (type == STYLE) {
+                skipStyle(buffer);
+                continue;
+            }
+            int segments = getVarInt(buffer);
+            if (skip > 0) {
+                for (int i = 0; i < segments; i++) {
+                    getVarInt(buffer);
+                    int length = getVarInt(buffer);
+                    buffer.position(buffer.position() + length);
+                }
+                skip--;
+                continue;
+            }
+            List<StyledSegment<String, Collection<String>>> paragraph = new ArrayList<>(segments);
+            for (int i = 0; i < segments; i++) {
+                List<String> style = styles.get(getVarInt(buffer));
+                paragraph.add(new StyledSegment<>(getString(buffer), style));
+            }
+            action.accept(paragraph);
+            read++;
+        }
+    }
+
+    /**
+     * Reads the specified number of bytes, starting at the specified offset, into the <code>readBuffer</code>.
+     * Any of the bytes that have been written through the current chunk are read from it, as they may not yet have
+     * been written back to the file.
+     */
+    private ByteBuffer read(long offset, int length) throws IOException {
+        if (readBuffer.capacity() < length) {
+            readBuffer = ByteBuffer.allocate(Math.max(readBuffer.capacity() * 2, length));
+        }
+        ByteBuffer buffer = readBuffer;
+        buffer.clear().limit(length);
+        long end = offset + length;
+        long fileEnd = (chunk == null) ? end : Math.min(end, chunkOffset);
+        while (offset + buffer.position() < fileEnd) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException(
+                        "Unexpected end of file at offset " + (offset + buffer.position()) + "."
+                );
+            }
+        }
+        if (buffer.hasRemaining()) {
+            ByteBuffer mapped = chunk.duplicate();
+            int from = (int) (offset + buffer.position() - chunkOffset);
+            mapped.limit(from + buffer.remaining()).position(from);
+            buffer.put(mapped);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @return the number of paragraphs held by this archive.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes that have been written to this archive.
+     */
+    public synchronized long length() {
+        return position;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Closes this archive, and truncates its file to the number of bytes that have been written.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (chunk != null) {
+                chunk.force();
+                unmap(chunk);
+                chunk = null;
+            }
+            // the file can not be truncated while a region of it is mapped, on some platforms
+            channel.truncate(position);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int styleId(Collection<String> styleClasses) throws IOException {
+        List<String> style = StyleSegment.intern((styleClasses instanceof List) ?
+                (List<String>) styleClasses : new ArrayList<>(styleClasses));
+        Integer id = styleIds.get(style);
+        if (id == null) {
+            id = styles.size();
+            styles.add(style);
+            styleIds.put(style, id);
+            scratchLength = 0;
+            putByte(STYLE);
+            putVarInt(id);
+            putVarInt(style.size());
+            for (String styleClass : style) {
+                putString(styleClass);
+            }
+            write();
+        }
+        return id;
+    }
+
+    /**
+     * Writes the contents of the scratch buffer at the current position, mapping a new chunk as required.
+     */
+    private void write() throws IOException {
+        int offset = 0;
+        while (offset < scratchLength) {
+            if (chunk == null || !chunk.hasRemaining()) {
+                if (chunk != null) {
+                    unmap(chunk);
+                    // never to be accessed again, even if the next chunk can not be mapped
+                    chunk = null;
+                }
+                chunkOffset = position;
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkOffset, CHUNK_SIZE);
+            }
+            int n = Math.min(chunk.remaining(), scratchLength - offset);
+            chunk.put(scratch, offset, n);
+            offset += n;
+            position += n;
+        }
+    }
+
+    /**
+     * Unmaps the specified <code>buffer</code>, which must not be accessed thereafter, rather than leaving it to be
+     * unmapped once it has been garbage collected. If it can not be unmapped, it is left to the garbage collector.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // available as of Java 9
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(field.get(null), buffer);
+            return;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // not available
+        }
+        try {
+            // available up to, and including, Java 8
+            Method method = buffer.getClass().getMethod("cleaner");
+            method.setAccessible(true);
+            Object cleaner = method.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // not available
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException(
+                    "The archive has been closed."
+            );
+        }
+    }
+
+    private void ensureScratch(int n) {
+        if (scratch.length < scratchLength + n) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + n));
+        }
+    }
+
+    private void putByte(byte b) {
+        ensureScratch(1);
+        scratch[scratchLength++] = b;
+    }
+
+    private void putVarInt(int value) {
+        ensureScratch(5);
+        while ((value & ~0x7F) != 0) {
+            scratch[scratchLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        scratch[scratchLength++] = (byte) value;
+    }
+
+    private void putString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putVarInt(bytes.length);
+        ensureScratch(bytes.length);
+        System.arraycopy(bytes, 0, scratch, scratchLength, bytes.length);
+        scratchLength += bytes.length;
+    }
+
+    private static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = getVarInt(buffer);
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipStyle(ByteBuffer buffer) {
+        getVarInt(buffer);
+        int count = getVarInt(buffer);
+        for (int i = 0; i < count; i++) {
+            int length = getVarInt(buffer);
+            buffer.position(buffer.position() + length);
+        }
+    }
+}
@@ -1,10 +1,55 @@
 package com.github.wnebyte.consolefx;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import static com.github.wnebyte.consolefx.util.Strings.normalizeLineSeparators;
 
-public class StyleSegment {
+/**
+ * This class represents an immutable segment of text, and the style classes to be applied to said text.
+ * <p>
+ * Style classes are interned, so that every segment that has an equal collection of style classes
+ * shares a single unmodifiable list. Once {@link StyleSegment#MAX_INTERNED} distinct lists have been interned,
+ * any other list is copied rather than shared, so that a producer of ever varying style classes cannot grow
+ * the cache without bound.
+ */
+public final class StyleSegment {
+
+    static final int MAX_INTERNED = 1024;
+
+    private static final ConcurrentMap<List<String>, List<String>> STYLE_CLASSES = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the canonical, unmodifiable representation of the specified <code>styleClasses</code>.
+     * @param styleClasses a List of style classes.
+     * @return a canonical List equal to the specified List, or an unmodifiable copy of it if the cache is full.
+     */
+    static List<String> intern(List<String> styleClasses) {
+        if (styleClasses == null || styleClasses.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> canonical = STYLE_CLASSES.get(styleClasses);
+        if (canonical == null) {
+            List<String> copy = Collections.unmodifiableList(Arrays.asList(styleClasses.toArray(new String[0])));
+            if (MAX_INTERNED <= STYLE_CLASSES.size()) {
+                return copy;
+            }
+            canonical = STYLE_CLASSES.putIfAbsent(copy, copy);
+            if (canonical == null) {
+                canonical = copy;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * @return the number of distinct lists of style classes that are interned.
+     */
+    static int internedSize() {
+        return STYLE_CLASSES.size();
+    }
 
     private final String text;
 
@@ -12,14 +57,17 @@ public class StyleSegment {
 
     public StyleSegment(String text, List<String> styleClasses) {
         this.text = normalizeLineSeparators(text);
-        this.styleClasses = styleClasses;
+        this.styleClasses = intern(styleClasses);
     }
 
     public String getText() {
         return text;
     }
 
+    /**
+     * @return an unmodifiable, canonical List of the style classes to be applied to the text.
+     */
     public List<String> getStyleClasses() {
-        return Collections.unmodifiableList(styleClasses);
+        return styleClasses;
     }
 }
@@ -1,9 +1,14 @@
 package com.github.wnebyte.consolefx;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import static com.github.wnebyte.consolefx.util.Chars.LINE_SEPARATOR_UNIX;
 
+/**
+ * This class represents an immutable sequence of {@link StyleSegment}s.
+ * The lines of the text are computed once, when the <code>StyleText</code> is constructed.
+ */
 public class StyleText {
 
     private final List<StyleSegment> styleSegments;
@@ -11,12 +16,39 @@ public class StyleText {
     private final String[] lines;
 
     public StyleText(List<StyleSegment> styleSegments) {
-        this.styleSegments = styleSegments;
-        this.lines = join().split("\n");
+        this.styleSegments = Collections.unmodifiableList(new ArrayList<>(styleSegments));
+        this.lines = lines(this.styleSegments);
+    }
+
+    /**
+     * Splits the text of the specified <code>styleSegments</code> into lines, without joining it first.
+     * As with {@link String#split(String)}, any trailing empty lines are discarded.
+     */
+    private static String[] lines(List<StyleSegment> styleSegments) {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (StyleSegment styleSegment : styleSegments) {
+            String text = styleSegment.getText();
+            int start = 0;
+            int end;
+            while ((end = text.indexOf(LINE_SEPARATOR_UNIX, start)) != -1) {
+                line.append(text, start, end);
+                lines.add(line.toString());
+                line.setLength(0);
+                start = end + 1;
+            }
+            line.append(text, start, text.length());
+        }
+        lines.add(line.toString());
+        int size = lines.size();
+        while (size > 1 && lines.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return lines.subList(0, size).toArray(new String[0]);
     }
 
     public List<StyleSegment> getStyleSegments() {
-        return Collections.unmodifiableList(styleSegments);
+        return styleSegments;
     }
 
     private StyleSegment getFirstStyleSegment() {
@@ -31,10 +63,6 @@ public class StyleText {
         return styleSegments.get(index);
     }
 
-    private String join() {
-        return styleSegments.stream().map(StyleSegment::getText).collect(Collectors.joining());
-    }
-
     public String getFirstLine() {
         return lines[0];
     }
@@ -46,4 +74,11 @@ public class StyleText {
     public String getLine(int index) {
         return lines[index];
     }
+
+    /**
+     * @return the number of lines.
+     */
+    public int getLineCount() {
+        return lines.length;
+    }
 }
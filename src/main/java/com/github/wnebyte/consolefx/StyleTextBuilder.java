@@ -7,6 +7,10 @@ import java.util.ArrayList;
 
 public class StyleTextBuilder {
 
+    private static final StyleSegment LINE_SEPARATOR = new StyleSegment("\n", Collections.emptyList());
+
+    private static final StyleSegment WHITESPACE = new StyleSegment(" ", Collections.emptyList());
+
     private final List<StyleSegment> styleSegments;
 
     public StyleTextBuilder() {
@@ -29,14 +33,12 @@ public class StyleTextBuilder {
     }
 
     public StyleTextBuilder ln() {
-        StyleSegment styleSegment = new StyleSegment("\n", Collections.emptyList());
-        styleSegments.add(styleSegment);
+        styleSegments.add(LINE_SEPARATOR);
         return this;
     }
 
     public StyleTextBuilder whitespace() {
-        StyleSegment styleSegment = new StyleSegment(" ", Collections.emptyList());
-        styleSegments.add(styleSegment);
+        styleSegments.add(WHITESPACE);
         return this;
     }
 
@@ -0,0 +1,52 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CompletableFuture;
+import com.github.wnebyte.consolefx.util.Trie;
+
+/**
+ * This class is an implementation of {@link Completer} that completes the word at the caret
+ * from a static vocabulary, held by a {@link Trie}.
+ * <br/>
+ * At most <code>limit</code> candidates are returned, in lexicographic order; if there are more, they are
+ * returned as {@link Completer#truncated(List, String) truncated}, together with the prefix shared by all of them.
+ */
+public final class TrieCompleter implements Completer {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    private final Trie trie;
+
+    private final int limit;
+
+    public TrieCompleter(String... words) {
+        this(Arrays.asList(words));
+    }
+
+    public TrieCompleter(Iterable<String> words) {
+        this(words, DEFAULT_LIMIT);
+    }
+
+    public TrieCompleter(Iterable<String> words, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException(
+                    "The limit must be positive."
+            );
+        }
+        this.trie = new Trie(words);
+        this.limit = limit;
+    }
+
+    @Override
+    public CompletionStage<List<String>> complete(String input, int caret) {
+        String word = input.substring(Completer.wordStart(input, caret), caret);
+        // the lookup is proportional to the length of the word, and is completed immediately
+        List<String> words = trie.startingWith(word, limit + 1);
+        if (words.size() > limit) {
+            words = Completer.truncated(words.subList(0, limit), trie.commonPrefix(word));
+        }
+        return CompletableFuture.completedFuture(words);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * This class represents an unmodifiable view of some of the candidates for a word, together with the longest
+ * prefix shared by every candidate, including those that are not held by the view.
+ * @see Completer#truncated(List, String)
+ */
+final class TruncatedCandidates extends AbstractList<String> implements RandomAccess {
+
+    private final List<String> candidates;
+
+    private final String commonPrefix;
+
+    TruncatedCandidates(List<String> candidates, String commonPrefix) {
+        this.candidates = candidates;
+        this.commonPrefix = commonPrefix;
+    }
+
+    @Override
+    public String get(int index) {
+        return candidates.get(index);
+    }
+
+    @Override
+    public int size() {
+        return candidates.size();
+    }
+
+    /**
+     * @return the longest prefix shared by every candidate.
+     */
+    String getCommonPrefix() {
+        return commonPrefix;
+    }
+}
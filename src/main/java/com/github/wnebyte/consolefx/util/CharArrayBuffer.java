@@ -0,0 +1,104 @@
+package com.github.wnebyte.consolefx.util;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a growable buffer of primitive chars, that is intended to hold sensitive data.
+ * Any char that is removed from the buffer, or left behind when the buffer grows, is overwritten.
+ */
+public final class CharArrayBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private char[] arr;
+
+    private int size;
+
+    public CharArrayBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CharArrayBuffer(int capacity) {
+        this.arr = new char[Math.max(1, capacity)];
+        this.size = 0;
+    }
+
+    /**
+     * Appends the specified <code>c</code> to the end of this buffer.
+     * @param c a char.
+     */
+    public void append(char c) {
+        ensureCapacity(size + 1);
+        arr[size++] = c;
+    }
+
+    /**
+     * Appends the chars of the specified <code>s</code> to the end of this buffer.
+     * @param s a String.
+     */
+    public void append(String s) {
+        int len = s.length();
+        ensureCapacity(size + len);
+        s.getChars(0, len, arr, size);
+        size += len;
+    }
+
+    /**
+     * Removes and wipes the last <code>n</code> chars of this buffer.
+     * @param n the number of chars to remove.
+     */
+    public void removeLast(int n) {
+        int from = Math.max(0, size - n);
+        Arrays.fill(arr, from, size, '\0');
+        size = from;
+    }
+
+    /**
+     * @return the number of chars contained within this buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    /**
+     * Returns the char at the specified <code>index</code>.
+     * @param index an index.
+     * @return the char at the specified index.
+     */
+    public char charAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return arr[index];
+    }
+
+    /**
+     * Returns a new array containing the chars of this buffer.
+     * It is the responsibility of the caller to wipe the returned array once it is no longer needed.
+     * @return a new array.
+     */
+    public char[] toCharArray() {
+        return Arrays.copyOf(arr, size);
+    }
+
+    /**
+     * Wipes and removes every char contained within this buffer.
+     */
+    public void clear() {
+        Arrays.fill(arr, 0, size, '\0');
+        size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= arr.length) {
+            return;
+        }
+        char[] old = arr;
+        arr = Arrays.copyOf(old, Math.max(capacity, old.length * 2));
+        Arrays.fill(old, '\0');
+    }
+}
@@ -5,4 +5,6 @@ public class Chars {
     public static final char WHITESPACE = ' ';
 
     public static final char LINE_SEPARATOR_UNIX = '\n';
+
+    public static final char CARRIAGE_RETURN = '\r';
 }
@@ -92,6 +92,10 @@ public final class Strings {
         if (s == null) {
             return EMPTY;
         }
+        // avoid String#replace for the common case where s contains no carriage return
+        if (s.indexOf(Chars.CARRIAGE_RETURN) == -1) {
+            return s;
+        }
         return s.replace(LINE_SEPARATOR_WINDOWS, LINE_SEPARATOR_UNIX);
     }
 
@@ -147,4 +151,68 @@ public final class Strings {
         }
         return replacement;
     }
+
+    /**
+     Replaces the last substring in the specified <code>s</code> that consists of an uninterrupted sequence of the specified
+     <code>c</code>, with the specified <code>replacement</code>, without creating a <code>String</code> of the result.
+     * @param s a String.
+     * @param replacement a replacement array.
+     * @param c a char.
+     * @return a new array containing the result.
+     */
+    public static char[] replaceSequence(String s, char[] replacement, char c) {
+        if (s == null) {
+            return EMPTY.toCharArray();
+        }
+        boolean match = false;
+
+        for (int i = s.length() - 1; i >= 0; i--) {
+            if (s.charAt(i) == c) {
+                match = true;
+            } else {
+                if (match) {
+                    char[] arr = new char[i + 1 + replacement.length];
+                    s.getChars(0, i + 1, arr, 0);
+                    System.arraycopy(replacement, 0, arr, i + 1, replacement.length);
+                    return arr;
+                }
+            }
+        }
+        return replacement.clone();
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified <code>query</code> in the specified <code>s</code>,
+     * starting at the specified index, ignoring case.
+     * @param s a String.
+     * @param query the String to search for.
+     * @param from the index to start at.
+     * @return the index of the first occurrence, or <code>-1</code> if there is none.
+     */
+    public static int indexOfIgnoreCase(String s, String query, int from) {
+        int max = s.length() - query.length();
+        for (int i = Math.max(0, from); i <= max; i++) {
+            if (s.regionMatches(true, i, query, 0, query.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified <code>query</code> in the specified <code>s</code>,
+     * that starts at or before the specified index, ignoring case.
+     * @param s a String.
+     * @param query the String to search for.
+     * @param from the index to start at, searching backwards.
+     * @return the index of the last occurrence, or <code>-1</code> if there is none.
+     */
+    public static int lastIndexOfIgnoreCase(String s, String query, int from) {
+        for (int i = Math.min(from, s.length() - query.length()); i >= 0; i--) {
+            if (s.regionMatches(true, i, query, 0, query.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
 }
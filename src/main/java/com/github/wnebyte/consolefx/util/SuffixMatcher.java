@@ -0,0 +1,89 @@
+package com.github.wnebyte.consolefx.util;
+
+/**
+ * This class represents a matcher that determines whether a stream of chars ends with a given pattern.
+ * Chars are fed to the matcher one at a time, and the state of the matcher is updated in constant amortized time,
+ * using the failure function of the <code>Knuth-Morris-Pratt</code> algorithm.
+ */
+public final class SuffixMatcher {
+
+    private final char[] pattern;
+
+    private final int[] failure;
+
+    private int matched;
+
+    public SuffixMatcher(String pattern) {
+        if (Strings.isNullOrEmpty(pattern)) {
+            throw new IllegalArgumentException(
+                    "The pattern must not be null or empty."
+            );
+        }
+        this.pattern = pattern.toCharArray();
+        this.failure = new int[this.pattern.length];
+        for (int i = 1, k = 0; i < this.pattern.length; i++) {
+            while (k > 0 && this.pattern[i] != this.pattern[k]) {
+                k = failure[k - 1];
+            }
+            if (this.pattern[i] == this.pattern[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        this.matched = 0;
+    }
+
+    /**
+     * Feeds the specified <code>c</code> to this matcher.
+     * @param c a char.
+     * @return <code>true</code> if the chars fed to this matcher end with the pattern,
+     * otherwise <code>false</code>.
+     */
+    public boolean feed(char c) {
+        if (matched == pattern.length) {
+            matched = failure[matched - 1];
+        }
+        while (matched > 0 && c != pattern[matched]) {
+            matched = failure[matched - 1];
+        }
+        if (c == pattern[matched]) {
+            matched++;
+        }
+        return matches();
+    }
+
+    /**
+     * Feeds the chars of the specified <code>s</code> to this matcher.
+     * @param s a CharSequence.
+     * @return <code>true</code> if the chars fed to this matcher end with the pattern,
+     * otherwise <code>false</code>.
+     */
+    public boolean feed(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            feed(s.charAt(i));
+        }
+        return matches();
+    }
+
+    /**
+     * @return <code>true</code> if the chars fed to this matcher end with the pattern,
+     * otherwise <code>false</code>.
+     */
+    public boolean matches() {
+        return (matched == pattern.length);
+    }
+
+    /**
+     * @return the length of the pattern.
+     */
+    public int length() {
+        return pattern.length;
+    }
+
+    /**
+     * Resets this matcher, as if no chars had been fed to it.
+     */
+    public void reset() {
+        matched = 0;
+    }
+}
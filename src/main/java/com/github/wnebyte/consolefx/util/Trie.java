@@ -0,0 +1,171 @@
+package com.github.wnebyte.consolefx.util;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class represents a prefix tree of Strings.
+ * <br/>
+ * The children of each node are kept in a sorted array, so that the words starting with a given prefix
+ * are found in time proportional to the length of the prefix, and are enumerated in lexicographic order.
+ */
+public final class Trie {
+
+    private final Node root;
+
+    private int size;
+
+    public Trie() {
+        this.root = new Node();
+        this.size = 0;
+    }
+
+    public Trie(Iterable<String> words) {
+        this();
+        for (String word : words) {
+            add(word);
+        }
+    }
+
+    /**
+     * Adds the specified <code>word</code> to this trie.
+     * @param word the word to be added.
+     * @return <code>true</code> if this trie did not already contain the word,
+     * otherwise <code>false</code>.
+     */
+    public boolean add(String word) {
+        if (word == null) {
+            throw new IllegalArgumentException(
+                    "The word must not be null."
+            );
+        }
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.getOrAdd(word.charAt(i));
+        }
+        if (node.word) {
+            return false;
+        }
+        node.word = true;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns whether this trie contains the specified <code>word</code>.
+     * @param word the word.
+     * @return <code>true</code> if this trie contains the word,
+     * otherwise <code>false</code>.
+     */
+    public boolean contains(String word) {
+        Node node = find(word);
+        return (node != null) && node.word;
+    }
+
+    /**
+     * Returns the words starting with the specified <code>prefix</code>, in lexicographic order.
+     * @param prefix the prefix.
+     * @param limit the maximum number of words to be returned.
+     * @return the words starting with the specified prefix.
+     */
+    public List<String> startingWith(String prefix, int limit) {
+        List<String> words = new ArrayList<>(Math.min(limit, 16));
+        Node node = find(prefix);
+        if (node != null && limit > 0) {
+            collect(node, new StringBuilder(prefix), words, limit);
+        }
+        return words;
+    }
+
+    /**
+     * Returns the longest prefix shared by every word that starts with the specified <code>prefix</code>.
+     * @param prefix the prefix.
+     * @return the longest shared prefix, or <code>null</code> if no word starts with the specified prefix.
+     */
+    public String commonPrefix(String prefix) {
+        Node node = find(prefix);
+        if (node == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(prefix);
+        while (!node.word && node.size == 1) {
+            sb.append(node.keys[0]);
+            node = node.children[0];
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the number of words in this trie.
+     */
+    public int size() {
+        return size;
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private static boolean collect(Node node, StringBuilder sb, List<String> words, int limit) {
+        if (node.word) {
+            words.add(sb.toString());
+            if (words.size() == limit) {
+                return false;
+            }
+        }
+        for (int i = 0; i < node.size; i++) {
+            sb.append(node.keys[i]);
+            boolean more = collect(node.children[i], sb, words, limit);
+            sb.setLength(sb.length() - 1);
+            if (!more) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+
+        private static final char[] EMPTY_KEYS = new char[0];
+
+        private static final Node[] EMPTY_CHILDREN = new Node[0];
+
+        private char[] keys = EMPTY_KEYS;
+
+        private Node[] children = EMPTY_CHILDREN;
+
+        private int size;
+
+        private boolean word;
+
+        private Node get(char c) {
+            int i = Arrays.binarySearch(keys, 0, size, c);
+            return (i < 0) ? null : children[i];
+        }
+
+        private Node getOrAdd(char c) {
+            int i = Arrays.binarySearch(keys, 0, size, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = -(i + 1);
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, i, keys, i + 1, size - i);
+            System.arraycopy(children, i, children, i + 1, size - i);
+            Node node = new Node();
+            keys[i] = c;
+            children[i] = node;
+            size++;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AnsiParserTest {
+
+    private final List<String> texts = new ArrayList<>();
+
+    private final List<List<String>> styles = new ArrayList<>();
+
+    private void parse(AnsiParser parser, String s) {
+        char[] chars = s.toCharArray();
+        parser.parse(chars, 0, chars.length, (text, styleClasses) -> {
+            texts.add(text);
+            styles.add(styleClasses);
+        });
+    }
+
+    @Test
+    public void testParse00() {
+        AnsiParser parser = new AnsiParser();
+        parse(parser, "plain \u001B[1;31mred\u001B[0m plain");
+        Assert.assertEquals(Arrays.asList("plain ", "red", " plain"), texts);
+        Assert.assertEquals(Collections.emptyList(), styles.get(0));
+        Assert.assertEquals(Arrays.asList("ansi-bold", "ansi-fg-red"), styles.get(1));
+        Assert.assertEquals(Collections.emptyList(), styles.get(2));
+    }
+
+    @Test
+    public void testParse01() {
+        AnsiParser parser = new AnsiParser();
+        parse(parser, "a\u001B");
+        parse(parser, "[9");
+        parse(parser, "2mb\u001B[");
+        parse(parser, "m");
+        Assert.assertEquals(Arrays.asList("a", "b"), texts);
+        Assert.assertEquals(Collections.singletonList("ansi-fg-bright-green"), styles.get(1));
+        Assert.assertFalse(parser.isPending());
+        Assert.assertEquals(Collections.emptyList(), parser.getStyleClasses());
+    }
+
+    @Test
+    public void testParse02() {
+        AnsiParser parser = new AnsiParser();
+        parse(parser, "\u001B]0;title\u0007\u001B[?25l\u001B[2K\u001B[38;5;4;48;2;1;2;3mx");
+        Assert.assertEquals(Collections.singletonList("x"), texts);
+        Assert.assertEquals(Collections.singletonList("ansi-fg-blue"), styles.get(0));
+    }
+
+    @Test
+    public void testParse03() {
+        AnsiParser parser = new AnsiParser();
+        parse(parser, "\u001B[4mx\u001B[24;44my");
+        Assert.assertSame(parser.getStyleClasses(), styles.get(1));
+        parse(parser, "\u001B[0;44mz");
+        Assert.assertSame(styles.get(1), styles.get(2));
+    }
+}
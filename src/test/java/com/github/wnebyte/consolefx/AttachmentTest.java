@@ -0,0 +1,52 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AttachmentTest {
+
+    private static Printer printer() {
+        return new Printer() {
+            @Override
+            protected void printSegments(List<StyleSegment> styleSegments, boolean newline) {
+            }
+        };
+    }
+
+    @Test(timeout = 10_000)
+    public void testDetach00() throws Exception {
+        PipedInputStream stdin = new PipedInputStream();
+        CountDownLatch detached = new CountDownLatch(1);
+        Attachment attachment = new Attachment(new ByteArrayInputStream(new byte[0]), null,
+                new PipedOutputStream(stdin), StandardCharsets.UTF_8, a -> detached.countDown());
+        attachment.start(printer(), printer());
+        detached.await();
+        // the standard input stream is closed once the output has ended, and any further input is rejected
+        Assert.assertFalse(attachment.write("abc".toCharArray()));
+        Assert.assertEquals(-1, stdin.read());
+    }
+
+    @Test(timeout = 10_000)
+    public void testDetach01() throws Exception {
+        PipedInputStream stdin = new PipedInputStream();
+        Attachment attachment = new Attachment(null, null,
+                new PipedOutputStream(stdin), StandardCharsets.UTF_8, null);
+        Assert.assertTrue(attachment.write("abc".toCharArray()));
+        attachment.detach();
+        // the pending input is written ahead of the end of the stream
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int b;
+        while ((b = stdin.read()) != -1) {
+            bytes.write(b);
+        }
+        Assert.assertEquals("abc" + System.lineSeparator(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertTrue(attachment.isDetached());
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import javafx.application.Platform;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsoleCallbackTest extends ConsoleFixture {
+
+    @Test
+    public void testCallback00() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        List<String> inputs = Collections.synchronizedList(new ArrayList<>());
+        console.setPrefix(new StyleTextBuilder().append("$").build());
+        console.setCallback(s -> {
+            inputs.add(s + " " + Platform.isFxApplicationThread());
+            started.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            console.println("done");
+        });
+        console.ready();
+        // idempotent
+        console.ready();
+        console.awaitDrained();
+        enter("echo");
+        started.await();
+        Fx.call(() -> {
+            // the FX thread is not blocked by the callback, and the console is locked
+            Assert.assertTrue(console.isLocked());
+            return null;
+        });
+        proceed.countDown();
+        awaitUnlocked();
+        Assert.assertEquals(Collections.singletonList("echo false"), inputs);
+        Fx.call(() -> {
+            Assert.assertEquals(Arrays.asList("$ echo", "done", "$ "), area.getParagraphs().stream()
+                    .map(p -> p.getText()).collect(Collectors.toList()));
+            return null;
+        });
+    }
+
+    @Test
+    public void testCancel00() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        console.setCancellable(true);
+        console.setCallback(s -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        enter("sleep");
+        started.await();
+        Fx.call(() -> {
+            area.fireEvent(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.C, false, true, false, false));
+            return null;
+        });
+        Assert.assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        awaitUnlocked();
+        Fx.call(() -> {
+            Assert.assertEquals("^C", area.getText(1));
+            return null;
+        });
+    }
+}
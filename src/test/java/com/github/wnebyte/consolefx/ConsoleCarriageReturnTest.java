@@ -0,0 +1,37 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsoleCarriageReturnTest extends ConsoleFixture {
+
+    @Test
+    public void testCarriageReturn00() throws Exception {
+        console.println("header");
+        int updates = LINES / 10;
+        produce(1, updates, (producer, i) -> console.out.print("\rprogress " + i));
+        Fx.call(() -> {
+            // the progress line is rewritten in place, and adds no paragraphs
+            Assert.assertEquals(2, area.getParagraphs().size());
+            Assert.assertEquals("progress " + (updates - 1), area.getText(1));
+            return null;
+        });
+        console.out.print("\r\n");
+        console.print("abc\rX");
+        console.println("\r\nend");
+        console.rewriteLine("last", "text");
+        console.awaitDrained();
+        Fx.call(() -> {
+            // a carriage return that is followed by a line separator is a line separator
+            Assert.assertEquals("progress " + (updates - 1), area.getText(1));
+            Assert.assertEquals("X", area.getText(2));
+            Assert.assertEquals("end", area.getText(3));
+            Assert.assertEquals("last", area.getText(4));
+            Assert.assertEquals(5, area.getParagraphs().size());
+            Assert.assertEquals(Collections.singletonList("text"), new ArrayList<>(spans(4).get(0).getStyle()));
+            return null;
+        });
+    }
+}
@@ -0,0 +1,247 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsoleChannelTest extends ConsoleFixture {
+
+    @Test
+    public void testChannel00() throws Exception {
+        Console.Channel db = console.channel("db");
+        Console.Channel net = console.channel("net");
+        Assert.assertSame(db, console.channel("db"));
+        db.setStyleClasses("db");
+        net.setTagged(true);
+        int lines = LINES;
+        for (int i = 0; i < lines; i++) {
+            print(i, db, net);
+        }
+        console.awaitDrained();
+        db.setVisible(false);
+        console.awaitDrained();
+        Assert.assertFalse(db.isVisible());
+        assertLines(0, lines, false);
+        // printed while hidden
+        for (int i = lines; i < lines + 300; i++) {
+            print(i, db, net);
+        }
+        console.awaitDrained();
+        assertLines(0, lines + 300, false);
+        db.setVisible(true);
+        console.awaitDrained();
+        assertLines(0, lines + 300, true);
+        Fx.call(() -> {
+            assertSpans(0, Collections.singletonList("db"));
+            List<StyleSpan<Collection<String>>> spans = spans(1);
+            Assert.assertEquals(Collections.singletonList(Console.CHANNEL_PREFIX_STYLE_CLASS),
+                    new ArrayList<>(spans.get(0).getStyle()));
+            return null;
+        });
+    }
+
+    @Test
+    public void testChannel01() throws Exception {
+        Path path = Files.createTempFile("scrollback", ".bin");
+        Path export = Files.createTempFile("export", ".txt");
+        ScrollbackArchive archive = new ScrollbackArchive(path);
+        try {
+            Console.Channel db = console.channel("db");
+            Console.Channel net = console.channel("net");
+            net.setTagged(true);
+            db.setVisible(false);
+            console.setMaxLines(100);
+            console.setScrollbackArchive(archive);
+            int lines = 3_000;
+            for (int i = 0; i < lines; i++) {
+                print(i, db, net);
+            }
+            console.awaitDrained();
+            // the area is trimmed once the batch that holds the latch has been flushed
+            int archived = Fx.call(archive::size);
+            console.export(export, ExportFormat.PLAIN).get();
+            List<String> exported = Files.readAllLines(export);
+            // the hidden lines are archived in order along with the trimmed lines, but are not exported otherwise
+            Assert.assertEquals(archived + 99, exported.size());
+            long hidden = exported.stream().skip(archived).filter(s -> s.startsWith("db")).count();
+            Assert.assertEquals(0, hidden);
+            for (int i = 0; i < archived; i++) {
+                Assert.assertEquals(line(i, true), exported.get(i));
+            }
+            // the hidden lines that follow the first line that is retained are shown again
+            db.setVisible(true);
+            console.awaitDrained();
+            Fx.call(() -> {
+                int first = archive.size();
+                Assert.assertEquals(lines - first + 1, area.getParagraphs().size());
+                for (int i = first; i < lines; i++) {
+                    Assert.assertEquals(line(i, true), area.getText(i - first));
+                }
+                return null;
+            });
+        } finally {
+            Fx.call(() -> null);
+            archive.close();
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(export);
+        }
+    }
+
+    @Test
+    public void testChannel02() throws Exception {
+        Console.Channel db = console.channel("db");
+        db.setVisible(false);
+        console.setMaxLines(100);
+        for (int i = 0; i < 10; i++) {
+            console.println(Integer.toString(i));
+        }
+        // the hidden lines are capped on their own, and never cause the shown lines to be removed
+        for (int i = 0; i < 1000; i++) {
+            db.println("db " + i);
+        }
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertEquals(11, area.getParagraphs().size());
+            Assert.assertEquals("0", area.getText(0));
+            return null;
+        });
+        Assert.assertEquals(900, console.getMetrics().getEvictedLines());
+        db.setVisible(true);
+        console.awaitDrained();
+        Fx.call(() -> {
+            // the most recent hidden lines are shown, after which the area is trimmed as usual
+            Assert.assertEquals(100, area.getParagraphs().size());
+            Assert.assertEquals("db 901", area.getText(0));
+            Assert.assertEquals("db 999", area.getText(98));
+            return null;
+        });
+    }
+
+    @Test
+    public void testChannel03() throws Exception {
+        Console.Channel db = console.channel("db");
+        for (int i = 0; i < 1000; i++) {
+            console.println(Integer.toString(i));
+        }
+        for (int i = 0; i < 10; i++) {
+            db.println("db " + i);
+            console.println("x" + i);
+        }
+        console.awaitDrained();
+        // only the lines that follow the first line of the channel are rebuilt
+        db.setVisible(false);
+        console.awaitDrained();
+        Fx.call(() -> {
+            area.selectRange(area.getAbsolutePosition(10, 0), area.getAbsolutePosition(10, 1));
+            Assert.assertEquals(1011, area.getParagraphs().size());
+            Assert.assertEquals("999", area.getText(999));
+            Assert.assertEquals("x0", area.getText(1000));
+            Assert.assertEquals("x9", area.getText(1009));
+            return null;
+        });
+        db.setVisible(true);
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertEquals(1021, area.getParagraphs().size());
+            Assert.assertEquals("db 0", area.getText(1000));
+            Assert.assertEquals("x9", area.getText(1019));
+            // a selection that precedes the rebuilt lines is retained
+            Assert.assertEquals("1", area.getSelectedText());
+            return null;
+        });
+    }
+
+    @Test
+    public void testChannel04() throws Exception {
+        Console.Channel db = console.channel("db");
+        db.setVisible(false);
+        db.print("abc");
+        console.awaitDrained();
+        // the unfinished hidden line is shown, and is continued by the text that follows it
+        db.setVisible(true);
+        db.println("def");
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertEquals("abcdef", area.getText(0));
+            Assert.assertEquals(2, area.getParagraphs().size());
+            return null;
+        });
+        // as is an unfinished line that follows completed hidden lines
+        db.setVisible(false);
+        db.println("ghi");
+        db.print("jkl");
+        console.awaitDrained();
+        db.setVisible(true);
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertEquals("ghi", area.getText(1));
+            Assert.assertEquals("jkl", area.getText(2));
+            return null;
+        });
+        // and an unfinished line is discarded once cleared, rather than preceding the next hidden line
+        db.setVisible(false);
+        db.print("mno");
+        console.clear();
+        db.println("pqr");
+        db.setVisible(true);
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertEquals("pqr", area.getText(0));
+            return null;
+        });
+    }
+
+    private void print(int i, Console.Channel db, Console.Channel net) {
+        switch (i % 3) {
+            case 0:
+                db.println("db " + i);
+                break;
+            case 1:
+                net.println("net " + i);
+                break;
+            default:
+                console.println(Integer.toString(i));
+        }
+    }
+
+    private static String line(int i, boolean db) {
+        switch (i % 3) {
+            case 0:
+                return db ? "db " + i : null;
+            case 1:
+                return "[net] net " + i;
+            default:
+                return Integer.toString(i);
+        }
+    }
+
+    /**
+     * Asserts that the area holds the lines in the range [<code>from</code>, <code>to</code>),
+     * where the lines of the db channel are either shown or hidden, followed by an empty line.
+     */
+
+    private void assertLines(int from, int to, boolean db) throws Exception {
+        Fx.call(() -> {
+            int par = 0;
+            for (int i = from; i < to; i++) {
+                String line = line(i, db);
+                if (line != null) {
+                    Assert.assertEquals(line, area.getText(par++));
+                }
+            }
+            Assert.assertEquals(par + 1, area.getParagraphs().size());
+            return null;
+        });
+    }
+
+    /**
+     * Blocks the <code>JavaFX Application Thread</code>, so that the output queue is not drained,
+     * until the returned latch is released.
+     */
+}
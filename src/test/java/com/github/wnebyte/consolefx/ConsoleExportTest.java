@@ -0,0 +1,43 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsoleExportTest extends ConsoleFixture {
+
+    @Test
+    public void testExport00() throws Exception {
+        Path path = Files.createTempFile("scrollback", ".bin");
+        Path export = Files.createTempFile("export", ".txt");
+        ScrollbackArchive archive = new ScrollbackArchive(path);
+        try {
+            int lines = 10_000;
+            console.setMaxLines(1000);
+            console.setScrollbackArchive(archive);
+            for (int i = 0; i < lines; i++) {
+                console.println(String.valueOf(i), styleClass(i % PRODUCERS));
+            }
+            console.awaitDrained();
+            console.export(export, ExportFormat.PLAIN).get();
+            List<String> exported = Files.readAllLines(export);
+            Assert.assertEquals(lines, exported.size());
+            for (int i = 0; i < lines; i++) {
+                Assert.assertEquals(String.valueOf(i), exported.get(i));
+            }
+            console.export(export, ExportFormat.HTML).get();
+            String html = new String(Files.readAllBytes(export), StandardCharsets.UTF_8);
+            Assert.assertTrue(html.contains("<span class=\"" + styleClass(1) + "\">1</span>\n"));
+            Assert.assertTrue(html.contains("<span class=\"" + styleClass(3) + "\">9999</span>\n"));
+        } finally {
+            // the area is trimmed once the batch that holds the export has been flushed
+            Fx.call(() -> null);
+            archive.close();
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(export);
+        }
+    }
+}
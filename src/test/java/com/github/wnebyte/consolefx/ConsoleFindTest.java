@@ -0,0 +1,73 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.control.TextField;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsoleFindTest extends ConsoleFixture {
+
+    @Test
+    public void testFind00() throws Exception {
+        int lines = 50_000;
+        for (int i = 0; i < lines; i++) {
+            console.println((i % 10_000 == 1234) ? "Error: needle " + i : "line " + i);
+        }
+        console.awaitDrained();
+        TextField field = Fx.call(() -> {
+            area.fireEvent(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.F, false, true, false, false));
+            TextField findField = (TextField) console.lookup(".find-field");
+            findField.setText("NEEDLE");
+            return findField;
+        });
+        // the matches are highlighted in the pulse that follows
+        Fx.pulse(2);
+        Fx.call(() -> {
+            Assert.assertTrue(console.isPaused());
+            int paragraph = 41_234;
+            Assert.assertEquals("Error: needle 41234", area.getText(paragraph));
+            Assert.assertEquals(Arrays.asList(Console.FIND_MATCH_STYLE_CLASS, Console.FIND_CURRENT_STYLE_CLASS),
+                    new ArrayList<>(area.getStyleOfChar(paragraph, 8)));
+            Assert.assertTrue(area.getStyleOfChar(paragraph, 6).isEmpty());
+            field.fireEvent(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.ENTER, false, false, false, false));
+            return null;
+        });
+        Fx.pulse(2);
+        Fx.call(() -> {
+            Assert.assertEquals(Arrays.asList(Console.FIND_MATCH_STYLE_CLASS, Console.FIND_CURRENT_STYLE_CLASS),
+                    new ArrayList<>(area.getStyleOfChar(31_234, 8)));
+            // the highlights are removed once the find bar is closed
+            field.fireEvent(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.ESCAPE, false, false, false, false));
+            Assert.assertTrue(area.getStyleOfChar(31_234, 8).isEmpty());
+            Assert.assertNull(console.getBottom());
+            // as is the Console, which was paused by the search
+            Assert.assertFalse(console.isPaused());
+            return null;
+        });
+    }
+
+    @Test
+    public void testFind01() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            console.println("line " + i);
+        }
+        console.awaitDrained();
+        console.pause();
+        TextField field = Fx.call(() -> {
+            area.fireEvent(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.F, false, true, false, false));
+            TextField findField = (TextField) console.lookup(".find-field");
+            findField.setText("line 123");
+            return findField;
+        });
+        Fx.pulse(2);
+        Fx.call(() -> {
+            field.fireEvent(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.ESCAPE, false, false, false, false));
+            // the Console was paused before the search, and remains paused
+            Assert.assertTrue(console.isPaused());
+            return null;
+        });
+    }
+}
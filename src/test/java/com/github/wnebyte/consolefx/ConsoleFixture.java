@@ -0,0 +1,170 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.CountDownLatch;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.stage.Stage;
+import org.fxmisc.richtext.StyleClassedTextArea;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+
+/**
+ * Shows a {@link Console} on a headless JavaFX toolkit before each test, and declares utility-methods for driving
+ * it from many producer threads, and for asserting the content and style spans of the resulting document.
+ * <br/>
+ * The number of lines per test can be raised using <code>-Dconsolefx.stress.lines=...</code>.
+ */
+public abstract class ConsoleFixture {
+
+    static final int PRODUCERS = 4;
+
+    static final int LINES = Integer.getInteger("consolefx.stress.lines", 100_000);
+
+    Console console;
+
+    StyleClassedTextArea area;
+
+    private Stage stage;
+
+    @BeforeClass
+    public static void startup() throws InterruptedException {
+        Fx.startup();
+    }
+
+    @Before
+    public void setup() throws Exception {
+        console = Fx.call(() -> {
+            Console console = new Console();
+            stage = new Stage();
+            stage.setScene(new Scene(console, 800, 600));
+            stage.show();
+            return console;
+        });
+        area = Fx.call(() -> (StyleClassedTextArea) console.lookup(".styled-text-area"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Fx.call(() -> {
+            stage.close();
+            return null;
+        });
+    }
+
+    /**
+     * Blocks the <code>JavaFX Application Thread</code>, so that the output queue is not drained,
+     * until the returned latch is released.
+     */
+    CountDownLatch blockFx() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blocked.await();
+        return release;
+    }
+
+    /**
+     * Appends the specified <code>input</code>, as if it had been typed by the user, and presses enter.
+     */
+    void enter(String input) throws Exception {
+        Fx.call(() -> {
+            area.appendText(input);
+            area.fireEvent(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.ENTER, false, false, false, false));
+            return null;
+        });
+    }
+
+    void awaitUnlocked() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (Fx.call(console::isLocked)) {
+            Assert.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        console.awaitDrained();
+    }
+
+    /**
+     * Calls the specified <code>producer</code> from a number of threads that start at once,
+     * and waits for the threads to finish and, unless otherwise specified, for the output to be drained.
+     */
+    void produce(int perProducer, Producer producer) throws Exception {
+        produce(PRODUCERS, perProducer, producer);
+    }
+
+    void produce(int producers, int perProducer, Producer producer) throws Exception {
+        produce(producers, perProducer, producer, true);
+    }
+
+    void produce(int producers, int perProducer, Producer producer, boolean await) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(producers + 1);
+        List<Thread> threads = new ArrayList<>(producers);
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        producer.produce(id, i);
+                    }
+                } catch (Throwable t) {
+                    errors.add(t);
+                }
+            }, "producer-" + p);
+            threads.add(thread);
+            thread.start();
+        }
+        barrier.await();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (await) {
+            console.awaitDrained();
+        }
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+    }
+
+    List<StyleSpan<Collection<String>>> spans(int paragraph) {
+        List<StyleSpan<Collection<String>>> spans = new ArrayList<>();
+        for (StyleSpan<Collection<String>> span : area.getStyleSpans(paragraph)) {
+            if (span.getLength() > 0) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    void assertSpans(int paragraph, List<String> styleClasses) {
+        List<StyleSpan<Collection<String>>> spans = spans(paragraph);
+        Assert.assertEquals(1, spans.size());
+        Assert.assertEquals(styleClasses, new ArrayList<>(spans.get(0).getStyle()));
+        Assert.assertEquals(area.getParagraphLength(paragraph), spans.get(0).getLength());
+    }
+
+    static String styleClass(int producer) {
+        return "producer-" + producer;
+    }
+
+    @FunctionalInterface
+    interface Producer {
+        void produce(int producer, int i) throws Exception;
+    }
+}
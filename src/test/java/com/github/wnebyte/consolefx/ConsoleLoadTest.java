@@ -0,0 +1,130 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Drives a {@link Console} from many producer threads on a headless JavaFX toolkit, and asserts the content,
+ * style spans and ordering of the resulting document.
+ * <br/>
+ * The number of lines per test can be raised using <code>-Dconsolefx.stress.lines=...</code>.
+ */
+public class ConsoleLoadTest extends ConsoleFixture {
+
+    @Test
+    public void testPrintln00() throws Exception {
+        int perProducer = LINES / PRODUCERS;
+        produce(perProducer, (producer, i) ->
+                console.println(producer + " " + i, styleClass(producer)));
+
+        Fx.call(() -> {
+            // each line is followed by a newline, which leaves an empty last paragraph
+            Assert.assertEquals(PRODUCERS * perProducer + 1, area.getParagraphs().size());
+            Assert.assertEquals(0, area.getParagraphLength(area.getParagraphs().size() - 1));
+            int[] next = new int[PRODUCERS];
+            for (int par = 0; par < area.getParagraphs().size() - 1; par++) {
+                String text = area.getText(par);
+                int space = text.indexOf(' ');
+                int producer = Integer.parseInt(text.substring(0, space));
+                int i = Integer.parseInt(text.substring(space + 1));
+                // the lines of each producer are appended in the order they were printed
+                Assert.assertEquals(next[producer]++, i);
+                assertSpans(par, Collections.singletonList(styleClass(producer)));
+            }
+            for (int producer = 0; producer < PRODUCERS; producer++) {
+                Assert.assertEquals(perProducer, next[producer]);
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void testPrintlnStyleText00() throws Exception {
+        int perProducer = LINES / PRODUCERS / 4;
+        produce(perProducer, (producer, i) -> console.println(new StyleTextBuilder()
+                .append(String.valueOf(producer), styleClass(producer))
+                .whitespace()
+                .append(String.valueOf(i), "text")
+                .build()));
+
+        Fx.call(() -> {
+            Assert.assertEquals(PRODUCERS * perProducer + 1, area.getParagraphs().size());
+            int[] next = new int[PRODUCERS];
+            for (int par = 0; par < area.getParagraphs().size() - 1; par++) {
+                String text = area.getText(par);
+                int space = text.indexOf(' ');
+                int producer = Integer.parseInt(text.substring(0, space));
+                // the segments of a StyleText are never interleaved with those of another
+                Assert.assertEquals(next[producer]++, Integer.parseInt(text.substring(space + 1)));
+                List<StyleSpan<Collection<String>>> spans = spans(par);
+                Assert.assertEquals(3, spans.size());
+                Assert.assertEquals(Collections.singletonList(styleClass(producer)), new ArrayList<>(spans.get(0).getStyle()));
+                Assert.assertEquals(space, spans.get(0).getLength());
+                Assert.assertTrue(spans.get(1).getStyle().isEmpty());
+                Assert.assertEquals(Collections.singletonList("text"), new ArrayList<>(spans.get(2).getStyle()));
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void testPrintStream00() throws Exception {
+        int perProducer = LINES / PRODUCERS / 4;
+        produce(perProducer, (producer, i) -> {
+            Printer printer = (producer % 2 == 0) ? console.out : console.err;
+            printer.println("\u001B[1m" + producer + "\u001B[0m " + i);
+        });
+
+        Fx.call(() -> {
+            Assert.assertEquals(PRODUCERS * perProducer + 1, area.getParagraphs().size());
+            int[] next = new int[PRODUCERS];
+            for (int par = 0; par < area.getParagraphs().size() - 1; par++) {
+                String text = area.getText(par);
+                int space = text.indexOf(' ');
+                int producer = Integer.parseInt(text.substring(0, space));
+                Assert.assertEquals(next[producer]++, Integer.parseInt(text.substring(space + 1)));
+                List<StyleSpan<Collection<String>>> spans = spans(par);
+                Collection<String> bold = spans.get(0).getStyle();
+                Assert.assertTrue(bold.contains("ansi-bold"));
+                Assert.assertEquals(producer % 2 == 1, bold.contains(Console.ERROR_STYLE_CLASS));
+                Assert.assertFalse(spans.get(spans.size() - 1).getStyle().contains("ansi-bold"));
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void testMaxLines00() throws Exception {
+        int maxLines = 1000;
+        console.setMaxLines(maxLines);
+        int perProducer = LINES / PRODUCERS / 4;
+        produce(perProducer, (producer, i) ->
+                console.println(producer + " " + i, styleClass(producer)));
+
+        Fx.call(() -> {
+            Assert.assertEquals("paragraphs", maxLines, area.getParagraphs().size());
+            // the oldest lines are removed, so the retained lines of each producer are its newest lines
+            int[] next = new int[PRODUCERS];
+            Arrays.fill(next, -1);
+            for (int par = 0; par < area.getParagraphs().size() - 1; par++) {
+                String text = area.getText(par);
+                int space = text.indexOf(' ');
+                int producer = Integer.parseInt(text.substring(0, space));
+                int i = Integer.parseInt(text.substring(space + 1));
+                Assert.assertTrue("consecutive", next[producer] == -1 || next[producer] == i);
+                next[producer] = i + 1;
+            }
+            for (int n : next) {
+                Assert.assertTrue("newest line retained", n == -1 || n == perProducer);
+            }
+            Assert.assertEquals("caret", area.getLength(), area.getCaretPosition());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.wnebyte.consolefx;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+import javax.management.MBeanServer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsoleMetricsTest extends ConsoleFixture {
+
+    @Test
+    public void testMetrics00() throws Exception {
+        int perProducer = LINES / PRODUCERS / 4;
+        produce(perProducer, (producer, i) -> console.println(producer + " " + i, styleClass(producer)));
+        Fx.call(() -> {
+            ConsoleMetrics metrics = console.getMetrics();
+            Assert.assertEquals(PRODUCERS * perProducer, metrics.getAppendedLines());
+            Assert.assertEquals(area.getLength(), metrics.getAppendedChars());
+            Assert.assertEquals(area.getParagraphs().size(), metrics.getParagraphCount());
+            Assert.assertEquals(0, metrics.getQueueDepth());
+            Assert.assertTrue(metrics.getBatchCount() > 0);
+            Assert.assertTrue(metrics.getMaxBatchNanos() >= metrics.getAverageBatchNanos());
+            return null;
+        });
+    }
+
+    @Test
+    public void testMetricsMXBean00() throws Exception {
+        ConsoleMetrics metrics = console.getMetrics();
+        ObjectName name = metrics.register("test");
+        try {
+            console.println("text");
+            console.awaitDrained();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            // the metrics are recorded once the batch that drained the output has completed
+            Fx.call(() -> {
+                Assert.assertEquals(1L, server.getAttribute(name, "AppendedLines"));
+                Assert.assertEquals(2, server.getAttribute(name, "ParagraphCount"));
+                return null;
+            });
+        } finally {
+            metrics.unregister();
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void testEvicted00() throws Exception {
+        int maxLines = 1000;
+        console.setMaxLines(maxLines);
+        int perProducer = LINES / PRODUCERS / 4;
+        produce(perProducer, (producer, i) -> console.println(producer + " " + i, styleClass(producer)));
+        Fx.call(() -> {
+            Assert.assertEquals(PRODUCERS * perProducer + 1 - maxLines, console.getMetrics().getEvictedLines());
+            return null;
+        });
+    }
+
+    @Test
+    public void testReset00() throws Exception {
+        console.println("text");
+        console.awaitDrained();
+        ConsoleMetrics metrics = console.getMetrics();
+        metrics.reset();
+        // the batch statistics are reset on the FX thread
+        Fx.call(() -> {
+            Assert.assertEquals(0, metrics.getBatchCount());
+            Assert.assertEquals(0, metrics.getMaxBatchNanos());
+            Assert.assertEquals(0, metrics.getEnqueuedOutputs());
+            Assert.assertEquals(1, metrics.getAppendedLines());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsoleOverflowTest extends ConsoleFixture {
+
+    @Test
+    public void testDropNewest00() throws Exception {
+        int lines = 100_000;
+        int capacity = 65_536;
+        console.setOverflowPolicy(OverflowPolicy.DROP_NEWEST);
+        CountDownLatch release = blockFx();
+        try {
+            for (int i = 0; i < lines; i++) {
+                console.println(Integer.toString(i));
+            }
+        } finally {
+            release.countDown();
+        }
+        console.awaitDrained();
+        Fx.call(() -> {
+            // the lines printed while the queue was full are accounted for by a single line
+            Assert.assertEquals(capacity + 2, area.getParagraphs().size());
+            Assert.assertEquals(Integer.toString(capacity - 1), area.getText(capacity - 1));
+            Assert.assertEquals((lines - capacity) + " outputs suppressed", area.getText(capacity));
+            assertSpans(capacity, Collections.singletonList(Console.SUPPRESSED_STYLE_CLASS));
+            Assert.assertEquals(lines - capacity, console.getMetrics().getDroppedLines());
+            return null;
+        });
+    }
+
+    @Test
+    public void testDropOldest00() throws Exception {
+        int lines = 100_000;
+        int capacity = 65_536;
+        console.setOverflowPolicy(OverflowPolicy.DROP_OLDEST);
+        CountDownLatch release = blockFx();
+        try {
+            for (int i = 0; i < lines; i++) {
+                console.println(Integer.toString(i));
+            }
+        } finally {
+            release.countDown();
+        }
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertEquals(capacity + 2, area.getParagraphs().size());
+            Assert.assertEquals((lines - capacity) + " outputs suppressed", area.getText(0));
+            Assert.assertEquals(Integer.toString(lines - capacity), area.getText(1));
+            Assert.assertEquals(Integer.toString(lines - 1), area.getText(capacity));
+            Assert.assertEquals(lines - capacity, console.getMetrics().getDroppedLines());
+            return null;
+        });
+    }
+
+    @Test
+    public void testOffer00() throws Exception {
+        int capacity = 65_536;
+        CountDownLatch release = blockFx();
+        int accepted = 0;
+        try {
+            // the default policy blocks printing threads, but never a thread that offers
+            while (console.offerln(Integer.toString(accepted))) {
+                accepted++;
+            }
+            Assert.assertFalse(console.out.offerln("rejected"));
+        } finally {
+            release.countDown();
+        }
+        Assert.assertEquals(capacity, accepted);
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertEquals(capacity + 1, area.getParagraphs().size());
+            Assert.assertEquals(0, console.getMetrics().getDroppedLines());
+            return null;
+        });
+    }
+
+    @Test
+    public void testRateLimit00() throws Exception {
+        console.setOverflowPolicy(OverflowPolicy.DROP_NEWEST);
+        console.out.setRateLimit(0.001, 10);
+        for (int i = 0; i < 100; i++) {
+            console.out.println(i);
+        }
+        // unaffected by the rate limit of the printer
+        console.println("done");
+        console.awaitDrained();
+        Fx.call(() -> {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                expected.add(Integer.toString(i));
+            }
+            expected.add("90 outputs suppressed");
+            expected.add("done");
+            expected.add("");
+            Assert.assertEquals(expected, area.getParagraphs().stream()
+                    .map(p -> p.getText()).collect(Collectors.toList()));
+            Assert.assertEquals(90, console.getMetrics().getDroppedLines());
+            return null;
+        });
+        Assert.assertFalse(console.out.offerln("rejected"));
+        console.out.removeRateLimit();
+        Assert.assertTrue(console.out.offerln("accepted"));
+    }
+
+    @Test
+    public void testRateLimit01() throws Exception {
+        console.setOverflowPolicy(OverflowPolicy.DROP_NEWEST);
+        console.out.setRateLimit(0.001, 1);
+        console.print("a");
+        console.out.print("b");
+        for (int i = 0; i < 5; i++) {
+            console.out.print("c");
+        }
+        console.println("d");
+        console.awaitDrained();
+        Fx.call(() -> {
+            // the dropped outputs are accounted for once the line they interrupted has been completed
+            Assert.assertEquals(Arrays.asList("abd", "5 outputs suppressed", ""), area.getParagraphs().stream()
+                    .map(p -> p.getText()).collect(Collectors.toList()));
+            Assert.assertEquals(5, console.getMetrics().getDroppedLines());
+            return null;
+        });
+    }
+
+    @Test(timeout = 60_000)
+    public void testBlock00() throws Exception {
+        int lines = 70_000;
+        int capacity = 65_536;
+        AtomicInteger printed = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < lines; i++) {
+                console.err.println("producer " + i);
+                printed.incrementAndGet();
+            }
+        });
+        Fx.call(() -> {
+            // the queue is not drained while the FX thread waits for the producer to block on the full queue
+            producer.start();
+            while (printed.get() < capacity || producer.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(1);
+            }
+            // the FX thread prints on the printer that the producer is blocked on, and drains the queue instead
+            console.err.println("fx");
+            return null;
+        });
+        producer.join();
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertEquals(lines + 2, area.getParagraphs().size());
+            Assert.assertTrue(area.getText().contains("\nfx\n"));
+            return null;
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.concurrent.TimeUnit;
+import javafx.scene.input.ScrollEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsolePauseTest extends ConsoleFixture {
+
+    @Test
+    public void testPause00() throws Exception {
+        // otherwise, the scroll to the bottom that follows the output may be applied after the user has scrolled
+        console.setFollowTail(false);
+        for (int i = 0; i < 1000; i++) {
+            console.println(String.valueOf(i));
+        }
+        console.awaitDrained();
+        // the user scrolls up
+        Fx.call(() -> {
+            area.fireEvent(new ScrollEvent(ScrollEvent.SCROLL, 0, 0, 0, 0, false, false, false, false,
+                    false, false, 0, 1000, 0, 1000, ScrollEvent.HorizontalTextScrollUnits.NONE, 0,
+                    ScrollEvent.VerticalTextScrollUnits.NONE, 0, 0, null));
+            return null;
+        });
+        Fx.call(() -> null);
+        Assert.assertTrue(console.isPaused());
+        int perProducer = LINES / PRODUCERS / 4;
+        // the output is held, rather than appended
+        produce(PRODUCERS, perProducer, (producer, i) ->
+                console.println(producer + " " + i, styleClass(producer)));
+        Fx.call(() -> {
+            // the output is held off the document
+            Assert.assertEquals(1001, area.getParagraphs().size());
+            return null;
+        });
+        console.resume();
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertFalse(console.isPaused());
+            Assert.assertEquals(1001 + PRODUCERS * perProducer, area.getParagraphs().size());
+            return null;
+        });
+    }
+
+    @Test
+    public void testFollowTail00() throws Exception {
+        console.setFollowTail(false);
+        for (int i = 0; i < 1000; i++) {
+            console.println(String.valueOf(i));
+        }
+        console.awaitDrained();
+        Fx.call(() -> null);
+        Fx.call(() -> {
+            area.layout();
+            Assert.assertEquals(0.0, area.getEstimatedScrollY(), 0.0);
+            return null;
+        });
+        console.setFollowTail(true);
+        console.println("tail");
+        console.awaitDrained();
+        // the scroll is applied in the pulse that appended the output
+        Fx.call(() -> null);
+        Fx.call(() -> {
+            area.layout();
+            Assert.assertTrue(area.getEstimatedScrollY() > 0.0);
+            Assert.assertTrue(area.getEstimatedScrollY() + area.getViewportHeight() >=
+                    area.getTotalHeightEstimate() - 1.0);
+            return null;
+        });
+    }
+
+    @Test
+    public void testPause01() throws Exception {
+        int maxLines = 1000;
+        int lines = 5000;
+        console.setMaxLines(maxLines);
+        console.pause();
+        for (int i = 0; i < lines; i++) {
+            console.println(Integer.toString(i));
+        }
+        // the held output is bounded by the maximum number of lines, and the remaining output stays queued
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (console.getMetrics().getQueueDepth() != lines - maxLines) {
+            Assert.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        Fx.pulse(2);
+        Assert.assertEquals(lines - maxLines, console.getMetrics().getQueueDepth());
+        Fx.call(() -> {
+            Assert.assertEquals(1, area.getParagraphs().size());
+            return null;
+        });
+        console.resume();
+        console.awaitDrained();
+        Fx.call(() -> {
+            Assert.assertEquals(maxLines, area.getParagraphs().size());
+            Assert.assertEquals(Integer.toString(lines - 1), area.getText(maxLines - 2));
+            return null;
+        });
+    }
+}
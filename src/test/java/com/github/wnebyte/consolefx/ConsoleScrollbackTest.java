@@ -0,0 +1,106 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import javafx.scene.input.ScrollEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsoleScrollbackTest extends ConsoleFixture {
+
+    @Test
+    public void testScrollbackArchive00() throws Exception {
+        Path path = Files.createTempFile("scrollback", ".bin");
+        ScrollbackArchive archive = new ScrollbackArchive(path);
+        try {
+            int lines = 10_000;
+            console.setMaxLines(100);
+            console.setScrollbackArchive(archive);
+            for (int i = 0; i < lines; i++) {
+                console.println(String.valueOf(i), styleClass(i % PRODUCERS));
+            }
+            console.awaitDrained();
+            // the trailing empty paragraph is retained
+            int archived = lines + 1 - 100;
+            // the area is trimmed once the batch that holds the awaited command has been flushed
+            Assert.assertEquals(archived, (int) Fx.call(archive::size));
+            int pages = 12;
+            for (int page = 1; page <= pages; page++) {
+                // the user scrolls to the top
+                Fx.call(() -> {
+                    area.layout();
+                    area.scrollYToPixel(0);
+                    area.layout();
+                    area.fireEvent(new ScrollEvent(ScrollEvent.SCROLL, 0, 0, 0, 0, false, false, false, false,
+                            false, false, 0, 1000, 0, 1000, ScrollEvent.HorizontalTextScrollUnits.NONE, 0,
+                            ScrollEvent.VerticalTextScrollUnits.NONE, 0, 0, null));
+                    return null;
+                });
+                Fx.call(() -> null);
+                int first = archived - page * 500;
+                boolean gap = page * 500 > 5000;
+                Fx.call(() -> {
+                    Assert.assertTrue(console.isPaused());
+                    Assert.assertEquals(String.valueOf(first), area.getText(0));
+                    assertSpans(0, Collections.singletonList(styleClass(first % PRODUCERS)));
+                    int window = Math.min(archived - first, 5000);
+                    Assert.assertEquals(window + (gap ? 1 : 0) + 100, area.getParagraphs().size());
+                    if (gap) {
+                        Assert.assertEquals(Collections.singletonList(Console.ARCHIVE_GAP_STYLE_CLASS),
+                                new ArrayList<>(area.getStyleOfChar(window, 1)));
+                        Assert.assertEquals(String.valueOf(first + window - 1), area.getText(window - 1));
+                    } else {
+                        Assert.assertEquals(String.valueOf(archived), area.getText(window));
+                    }
+                    return null;
+                });
+            }
+            console.resume();
+            console.awaitDrained();
+            Fx.call(() -> {
+                Assert.assertFalse(console.isPaused());
+                Assert.assertEquals(100, area.getParagraphs().size());
+                Assert.assertEquals(String.valueOf(archived), area.getText(0));
+                return null;
+            });
+        } finally {
+            archive.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testScrollbackArchive01() throws Exception {
+        Path path = Files.createTempFile("scrollback", ".bin");
+        ScrollbackArchive archive = new ScrollbackArchive(path);
+        try {
+            console.setMaxLines(100);
+            console.setScrollbackArchive(archive);
+            // any further append fails
+            archive.close();
+            for (int i = 0; i < 1000; i++) {
+                console.println(String.valueOf(i));
+            }
+            console.awaitDrained();
+            // the failure is printed once the batch that trimmed the area has been flushed
+            console.awaitDrained();
+            Fx.call(() -> {
+                Assert.assertNull(console.getScrollbackArchive());
+                Assert.assertEquals(100, area.getParagraphs().size());
+                Assert.assertEquals("scrollback archive: java.io.IOException: The archive has been closed.",
+                        area.getText(98));
+                return null;
+            });
+            // the input is still scanned, as the failure did not leave the console writing
+            Fx.call(() -> {
+                area.appendText("abc");
+                Assert.assertEquals("abc", area.getText(99));
+                return null;
+            });
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -6,16 +6,12 @@ import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
 import javafx.stage.Stage;
 
-import java.util.concurrent.*;
-
 public class ConsoleTest extends Application {
 
     private static final double WIDTH = 895;
 
     private static final double HEIGHT = 515;
 
-    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
-
     public static void main(String[] args) {
         launch();
     }
@@ -24,18 +20,27 @@ public class ConsoleTest extends Application {
     public void start(Stage stage) {
         Console console = new Console();
         console.getStylesheets().add(getClass().getResource("/css/gitbash.css").toExternalForm());
-        console.setCallback(s -> executor.submit(() -> {
+        // the callback is run off the JavaFX Application Thread, and the console is readied once it returns
+        console.setCallback(s -> {
             if (s.equals("clear")) {
                 console.clear();
             }
             else if (s.equals("exit")) {
                 System.exit(0);
             }
+            else if (s.equals("sleep")) {
+                try {
+                    Thread.sleep(10_000);
+                    console.out.println("slept\n");
+                } catch (InterruptedException e) {
+                    console.err.println("interrupted\n");
+                }
+            }
             else {
                 console.out.println("read: " + s + "\n");
             }
-            console.ready();
-        }));
+        });
+        console.setCancellable(true);
         console.setPrefix(createPrefix());
         console.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
         console.println(FigletFont.convertOneLine("consolefx"));
@@ -0,0 +1,108 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.Random;
+import java.util.ArrayList;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DocumentIndexTest {
+
+    private List<String> lines;
+
+    private DocumentIndex index;
+
+    // the number of the first line held by lines
+    private long first;
+
+    @Before
+    public void setup() {
+        lines = new ArrayList<>();
+        index = new DocumentIndex();
+        first = 0;
+    }
+
+    private String line(long line) {
+        return lines.get((int) (line - first));
+    }
+
+    private void update() {
+        index.update(first + lines.size() - 1, this::line);
+    }
+
+    private long search(String query, long line, int column, boolean backward) {
+        return index.search(query, line, column, backward, first + lines.size(), this::line);
+    }
+
+    private void append(int n, Random random) {
+        for (int i = 0; i < n; i++) {
+            lines.add("INFO [worker-" + random.nextInt(16) + "] request " + random.nextInt(1_000_000) + " served");
+        }
+    }
+
+    @Test
+    public void testSearch00() {
+        Random random = new Random(1);
+        append(10_000, random);
+        lines.set(42, "java.lang.NullPointerException: x");
+        lines.set(7_777, "ERROR NullPointerException");
+        update();
+        Assert.assertEquals((10_000 - 1) / DocumentIndex.CHUNK_SIZE, index.size());
+        Assert.assertEquals(7_777, search("nullpointer", Long.MAX_VALUE, Integer.MAX_VALUE, true));
+        Assert.assertEquals(42, search("nullpointer", 7_776, Integer.MAX_VALUE, true));
+        Assert.assertEquals(-1, search("nullpointer", 41, Integer.MAX_VALUE, true));
+        Assert.assertEquals(42, search("NULLPOINTER", 0, 0, false));
+        Assert.assertEquals(7_777, search("NullPointer", 42, 11, false));
+        Assert.assertEquals(-1, search("NullPointer", 7_777, 7, false));
+        // shorter than a trigram
+        Assert.assertEquals(7_777, search("nU", Long.MAX_VALUE, Integer.MAX_VALUE, true));
+    }
+
+    @Test
+    public void testSearch01() {
+        Random random = new Random(2);
+        append(2_000, random);
+        update();
+        // the last line is never indexed, and a changed line is searched once its chunk is discarded
+        lines.set(lines.size() - 1, "needle");
+        Assert.assertEquals(lines.size() - 1, search("needle", Long.MAX_VALUE, Integer.MAX_VALUE, true));
+        lines.set(300, "needle");
+        index.invalidate(300);
+        Assert.assertEquals(300 / DocumentIndex.CHUNK_SIZE, index.size());
+        Assert.assertEquals(300, search("needle", 1_000, Integer.MAX_VALUE, true));
+        update();
+        Assert.assertEquals(300, search("needle", 1_000, Integer.MAX_VALUE, true));
+    }
+
+    @Test
+    public void testRemoveFirst00() {
+        Random random = new Random(3);
+        append(1_000, random);
+        lines.set(10, "needle");
+        lines.set(500, "needle");
+        update();
+        int n = DocumentIndex.CHUNK_SIZE * 2 + 5;
+        lines.subList(0, n).clear();
+        first += n;
+        index.removeFirst(n);
+        Assert.assertEquals(first, index.getFirst());
+        Assert.assertEquals(500, search("needle", 0, 0, false));
+        Assert.assertEquals(-1, search("needle", 499, Integer.MAX_VALUE, true));
+        append(DocumentIndex.CHUNK_SIZE * 3, random);
+        update();
+        Assert.assertEquals((first + lines.size() - 1) / DocumentIndex.CHUNK_SIZE - first / DocumentIndex.CHUNK_SIZE,
+                index.size());
+        Assert.assertEquals(500, search("needle", Long.MAX_VALUE, Integer.MAX_VALUE, true));
+    }
+
+    @Test
+    public void testSearch02() {
+        int n = 1_000_000;
+        Random random = new Random(4);
+        append(n, random);
+        lines.set(123_456, "FATAL: disk quota exceeded");
+        update();
+        Assert.assertEquals(123_456, search("quota exceeded", Long.MAX_VALUE, Integer.MAX_VALUE, true));
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.io.IOException;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import org.fxmisc.richtext.model.StyledSegment;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExporterTest {
+
+    private static StyledSegment<String, Collection<String>> segment(String text, String... styleClasses) {
+        return new StyledSegment<>(text, Arrays.asList(styleClasses));
+    }
+
+    private static String export(ExportFormat format, List<List<StyledSegment<String, Collection<String>>>> paragraphs)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Exporter exporter = new Exporter(Channels.newChannel(out), format);
+        exporter.begin();
+        for (List<StyledSegment<String, Collection<String>>> paragraph : paragraphs) {
+            exporter.paragraph(paragraph);
+        }
+        exporter.end();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static List<List<StyledSegment<String, Collection<String>>>> paragraphs() {
+        return Arrays.asList(
+                Arrays.asList(segment("$ "), segment("ls", "prefix")),
+                Arrays.asList(segment("a<b>&c", "ansi-bold", "ansi-fg-bright-red"), segment(" ok")),
+                Collections.singletonList(segment("failed", Console.ERROR_STYLE_CLASS)),
+                Collections.singletonList(segment(""))
+        );
+    }
+
+    @Test
+    public void testPlain00() throws IOException {
+        Assert.assertEquals("$ ls\na<b>&c ok\nfailed\n", export(ExportFormat.PLAIN, paragraphs()));
+    }
+
+    @Test
+    public void testHtml00() throws IOException {
+        String html = export(ExportFormat.HTML, paragraphs());
+        Assert.assertTrue(html.startsWith("<!DOCTYPE html>"));
+        Assert.assertTrue(html.contains("<pre class=\"console\">$ <span class=\"prefix\">ls</span>\n" +
+                "<span class=\"ansi-bold ansi-fg-bright-red\">a&lt;b&gt;&amp;c</span> ok\n" +
+                "<span class=\"error\">failed</span>\n</pre>"));
+    }
+
+    @Test
+    public void testAnsi00() throws IOException {
+        String ansi = export(ExportFormat.ANSI, paragraphs());
+        Assert.assertEquals("$ ls\n\u001B[0;1;91ma<b>&c\u001B[0m ok\n\u001B[0;31mfailed\u001B[0m\n", ansi);
+        // the escape sequences are parsed back into the same style classes
+        List<String> styleClasses = new ArrayList<>();
+        new AnsiParser().parse(ansi.toCharArray(), 0, ansi.length(), (text, classes) -> {
+            if (text.startsWith("a<b>")) {
+                styleClasses.addAll(classes);
+            }
+        });
+        Assert.assertEquals(Arrays.asList("ansi-bold", "ansi-fg-bright-red"), styleClasses);
+    }
+
+    @Test
+    public void testPlain01() throws IOException {
+        // spans several buffers, and splits surrogate pairs across buffers
+        StringBuilder expected = new StringBuilder();
+        List<List<StyledSegment<String, Collection<String>>>> paragraphs = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String text = i + " 😀 åäö";
+            paragraphs.add(Collections.singletonList(segment(text)));
+            expected.append(text).append('\n');
+        }
+        expected.setLength(expected.length() - 1);
+        Assert.assertEquals(expected.toString(), export(ExportFormat.PLAIN, paragraphs));
+    }
+
+    @Test(timeout = 10_000)
+    public void testPlain02() throws IOException {
+        // lone surrogates are replaced, both within a buffer and at the end of the output
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            text.append("a\uD83Db");
+        }
+        List<List<StyledSegment<String, Collection<String>>>> paragraphs = Arrays.asList(
+                Collections.singletonList(segment(text.toString())),
+                Collections.singletonList(segment("c\uDE00")),
+                Collections.singletonList(segment("d\uD83D"))
+        );
+        String expected = text.toString().replace('\uD83D', '?') + "\nc?\nd?";
+        Assert.assertEquals(expected, export(ExportFormat.PLAIN, paragraphs));
+    }
+}
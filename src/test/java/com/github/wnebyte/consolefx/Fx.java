@@ -0,0 +1,64 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.CountDownLatch;
+import javafx.application.Platform;
+import javafx.animation.AnimationTimer;
+import com.sun.javafx.application.PlatformImpl;
+
+/**
+ * This class declares utility-methods for running benchmarks against the JavaFX toolkit, which is expected to be
+ * headless, i.e. <code>-Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw</code>.
+ */
+final class Fx {
+
+    private static volatile boolean started = false;
+
+    /**
+     * Starts the JavaFX toolkit, unless it has already been started.
+     */
+    static synchronized void startup() throws InterruptedException {
+        if (started) {
+            return;
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        PlatformImpl.startup(latch::countDown);
+        latch.await();
+        Platform.setImplicitExit(false);
+        started = true;
+    }
+
+    /**
+     * Calls the specified <code>callable</code> on the <code>JavaFX Application Thread</code>,
+     * and waits for its result.
+     */
+    static <T> T call(Callable<T> callable) throws Exception {
+        FutureTask<T> task = new FutureTask<>(callable);
+        Platform.runLater(task);
+        return task.get();
+    }
+
+    /**
+     * Waits for the specified number of pulses to have been handled, in full, by every
+     * <code>AnimationTimer</code> that had been started prior to the call.
+     */
+    static void pulse(int pulses) throws Exception {
+        CountDownLatch latch = new CountDownLatch(pulses + 1);
+        call(() -> {
+            new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    latch.countDown();
+                    if (latch.getCount() == 0) {
+                        stop();
+                    }
+                }
+            }.start();
+            return null;
+        });
+        latch.await();
+        // the remaining timers of the last pulse
+        call(() -> null);
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistoryTest {
+
+    @Test
+    public void testNavigation00() {
+        History history = new History(3);
+        history.add("a");
+        history.add("b");
+        Assert.assertEquals("b", history.previous());
+        Assert.assertEquals("a", history.previous());
+        Assert.assertNull(history.previous());
+        Assert.assertEquals("b", history.next());
+        Assert.assertEquals("", history.next());
+        Assert.assertNull(history.next());
+    }
+
+    @Test
+    public void testEviction00() {
+        History history = new History(3);
+        for (String s : new String[]{ "a", "b", "c", "d", "e" }) {
+            history.add(s);
+        }
+        Assert.assertEquals(3, history.size());
+        Assert.assertEquals("c", history.get(0));
+        Assert.assertEquals("e", history.get(2));
+    }
+
+    @Test
+    public void testDuplicates00() {
+        History history = new History(10, true);
+        Assert.assertTrue(history.add("a"));
+        Assert.assertFalse(history.add("a"));
+        Assert.assertFalse(history.add(""));
+        Assert.assertTrue(history.add("b"));
+        Assert.assertTrue(history.add("a"));
+        Assert.assertEquals(3, history.size());
+        history = new History(10, false);
+        history.add("a");
+        history.add("a");
+        Assert.assertEquals(2, history.size());
+    }
+
+    @Test
+    public void testFileHistoryStore00() throws IOException {
+        Path path = Files.createTempFile("history", ".txt");
+        try {
+            History history = new History(2, true, new FileHistoryStore(path));
+            history.add("a");
+            history.add("b");
+            history.add("c");
+            history.awaitStore();
+            history = new History(2, true, new FileHistoryStore(path));
+            history.awaitStore();
+            Assert.assertEquals(2, history.size());
+            Assert.assertEquals("c", history.previous());
+            Assert.assertEquals("b", history.previous());
+            // the file holds more than twice the number of lines of interest, and is compacted
+            List<String> lines = new FileHistoryStore(path).load(1);
+            Assert.assertEquals(1, lines.size());
+            Assert.assertEquals(1, Files.readAllLines(path).size());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testSearch00() {
+        History history = new History(100);
+        history.add("git status");
+        history.add("ls -la");
+        history.add("git commit -m fix");
+        history.add("echo status");
+        Assert.assertEquals(3, history.search("status", history.size()));
+        Assert.assertEquals(0, history.search("status", 3));
+        Assert.assertEquals(-1, history.search("status", 0));
+        Assert.assertEquals(2, history.search("git", history.size()));
+        Assert.assertEquals(1, history.search("ls", history.size()));
+        Assert.assertEquals(-1, history.search("svn", history.size()));
+    }
+
+    @Test
+    public void testSearch01() {
+        History history = new History(3);
+        history.add("abc 1");
+        history.add("abc 2");
+        history.add("xyz 3");
+        history.add("xyz 4");
+        // "abc 1" has been evicted
+        Assert.assertEquals(0, history.search("abc", history.size()));
+        history.add("xyz 5");
+        Assert.assertEquals(-1, history.search("abc", history.size()));
+        Assert.assertEquals(2, history.search("xyz", history.size()));
+    }
+
+    @Test
+    public void testFileHistoryStore01() throws IOException {
+        Path path = Files.createTempFile("history", ".txt");
+        try {
+            Files.write(path, Arrays.asList("a", "b"));
+            History history = new History(3, true, new FileHistoryStore(path));
+            // added before the persisted entries have been merged
+            history.add("c");
+            history.awaitStore();
+            Assert.assertEquals(3, history.size());
+            Assert.assertEquals("a", history.get(0));
+            Assert.assertEquals("c", history.get(2));
+            Assert.assertEquals(Arrays.asList("a", "b", "c"), Files.readAllLines(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testFileHistoryStore02() throws IOException {
+        Path path = Files.createTempFile("history", ".txt");
+        try {
+            List<IOException> errors = new CopyOnWriteArrayList<>();
+            // the parent of the file is not a directory, so the entry can not be appended
+            History history = new History(3, true, new FileHistoryStore(path.resolve("history.txt")));
+            history.setErrorHandler(errors::add);
+            Assert.assertTrue(history.add("a"));
+            history.awaitStore();
+            Assert.assertEquals("a", history.get(history.size() - 1));
+            Assert.assertFalse(errors.isEmpty());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OutputQueueTest {
+
+    @Test
+    public void testOffer00() {
+        OutputQueue queue = new OutputQueue(2);
+        Output a = Output.of(new StyleSegment("a", null), false);
+        Output b = Output.of(new StyleSegment("b", null), false);
+        Assert.assertTrue(queue.offer(a));
+        Assert.assertTrue(queue.offer(b));
+        Assert.assertFalse(queue.offer(a));
+        Assert.assertEquals(2, queue.size());
+        Assert.assertSame(a, queue.poll());
+        Assert.assertTrue(queue.offer(a));
+        Assert.assertSame(b, queue.poll());
+        Assert.assertSame(a, queue.poll());
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testOrdering00() throws InterruptedException {
+        int producers = 8;
+        int n = 50_000;
+        OutputQueue queue = new OutputQueue(1024);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < n; i++) {
+                    Output output = Output.of(new StyleSegment(id + ":" + i, null), false);
+                    while (!queue.offer(output)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        int[] counts = new int[producers];
+        int total = 0;
+        while (total < producers * n) {
+            Output output = queue.poll();
+            if (output == null) {
+                Thread.yield();
+                continue;
+            }
+            String text = output.getStyleSegments().get(0).getText();
+            int colon = text.indexOf(':');
+            int p = Integer.parseInt(text.substring(0, colon));
+            // the outputs of each producer are polled in the order they were offered
+            Assert.assertEquals(counts[p]++, Integer.parseInt(text.substring(colon + 1)));
+            total++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testTryAcquire00() {
+        RateLimiter rateLimiter = new RateLimiter(1.0, 3);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(0, rateLimiter.tryAcquire());
+        }
+        long nanos = rateLimiter.tryAcquire();
+        Assert.assertTrue(nanos > 0);
+        Assert.assertTrue(nanos <= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void testTryAcquire01() throws InterruptedException {
+        RateLimiter rateLimiter = new RateLimiter(100.0, 1);
+        Assert.assertEquals(0, rateLimiter.tryAcquire());
+        Assert.assertNotEquals(0, rateLimiter.tryAcquire());
+        // refilled at 100 tokens per second, up to the burst
+        Thread.sleep(50);
+        Assert.assertEquals(0, rateLimiter.tryAcquire());
+        Assert.assertNotEquals(0, rateLimiter.tryAcquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRateLimiter00() {
+        new RateLimiter(0.0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRateLimiter01() {
+        new RateLimiter(1.0, 0);
+    }
+}
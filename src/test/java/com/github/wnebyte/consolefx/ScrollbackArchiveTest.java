@@ -0,0 +1,106 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import org.fxmisc.richtext.model.Paragraph;
+import org.fxmisc.richtext.model.SegmentOps;
+import org.fxmisc.richtext.model.StyledSegment;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScrollbackArchiveTest {
+
+    private static final SegmentOps<String, Collection<String>> OPS = SegmentOps.styledTextOps();
+
+    private Path path;
+
+    private ScrollbackArchive archive;
+
+    @Before
+    public void setup() throws IOException {
+        path = Files.createTempFile("scrollback", ".bin");
+        archive = new ScrollbackArchive(path);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        archive.close();
+        Files.deleteIfExists(path);
+    }
+
+    private static Paragraph<Collection<String>, String, Collection<String>> paragraph(int i) {
+        List<StyledSegment<String, Collection<String>>> segments = new ArrayList<>();
+        segments.add(new StyledSegment<>(String.valueOf(i), Collections.singletonList("c" + (i % 3))));
+        segments.add(new StyledSegment<>(" åäö " + i, Collections.emptyList()));
+        return new Paragraph<>(Collections.emptyList(), OPS, segments);
+    }
+
+    private List<List<StyledSegment<String, Collection<String>>>> read(int from, int count) throws IOException {
+        List<List<StyledSegment<String, Collection<String>>>> paragraphs = new ArrayList<>();
+        archive.read(from, count, paragraphs::add);
+        return paragraphs;
+    }
+
+    @Test
+    public void testRead00() throws IOException {
+        int n = ScrollbackArchive.INDEX_INTERVAL * 10 + 7;
+        for (int i = 0; i < n; i++) {
+            archive.append(paragraph(i));
+        }
+        Assert.assertEquals(n, archive.size());
+        for (int from : new int[] { 0, 1, 63, 64, 65, 300, n - 1 }) {
+            int count = Math.min(100, n - from);
+            List<List<StyledSegment<String, Collection<String>>>> paragraphs = read(from, count);
+            Assert.assertEquals(count, paragraphs.size());
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(paragraph(from + i).getStyledSegments(), paragraphs.get(i));
+            }
+        }
+        Assert.assertTrue(read(n, 0).isEmpty());
+    }
+
+    @Test
+    public void testRead01() throws IOException {
+        // spans several mapped chunks
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'x');
+        String text = new String(chars);
+        int n = 2 * ScrollbackArchive.CHUNK_SIZE / chars.length + 10;
+        for (int i = 0; i < n; i++) {
+            archive.append(new Paragraph<>(Collections.emptyList(), OPS, i + text, Collections.emptyList()));
+        }
+        Assert.assertTrue(2L * ScrollbackArchive.CHUNK_SIZE < archive.length());
+        for (int from = 0; from < n; from += n / 7) {
+            Assert.assertEquals(from + text, read(from, 1).get(0).get(0).getSegment());
+        }
+        // pages that span the boundaries of the chunks, and the chunk that is currently mapped
+        for (int from = 0; from < n; from += 500) {
+            List<List<StyledSegment<String, Collection<String>>>> paragraphs = read(from, Math.min(500, n - from));
+            for (int i = 0; i < paragraphs.size(); i++) {
+                Assert.assertEquals((from + i) + text, paragraphs.get(i).get(0).getSegment());
+            }
+        }
+        archive.close();
+        Assert.assertEquals(archive.length(), Files.size(path));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRead02() throws IOException {
+        archive.append(paragraph(0));
+        read(0, 2);
+    }
+
+    @Test(expected = IOException.class)
+    public void testAppend00() throws IOException {
+        archive.close();
+        archive.append(paragraph(0));
+    }
+}
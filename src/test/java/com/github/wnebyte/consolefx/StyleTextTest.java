@@ -0,0 +1,58 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StyleTextTest {
+
+    @Test
+    public void testLines00() {
+        StyleText styleText = new StyleTextBuilder()
+                .append("wne@MSI", "green")
+                .whitespace()
+                .append("~", "green")
+                .ln()
+                .append("$", "text")
+                .build();
+        Assert.assertEquals(2, styleText.getLineCount());
+        Assert.assertEquals("wne@MSI ~", styleText.getFirstLine());
+        Assert.assertEquals("$", styleText.getLastLine());
+    }
+
+    @Test
+    public void testLines01() {
+        StyleText styleText = new StyleTextBuilder()
+                .append("a\r\nb\n", "green")
+                .ln()
+                .build();
+        Assert.assertEquals(2, styleText.getLineCount());
+        Assert.assertEquals("b", styleText.getLastLine());
+
+        styleText = new StyleTextBuilder().build();
+        Assert.assertEquals(1, styleText.getLineCount());
+        Assert.assertEquals("", styleText.getLastLine());
+    }
+
+    @Test
+    public void testStyleClasses00() {
+        StyleSegment s1 = new StyleSegment("a", Arrays.asList("green", "bold"));
+        StyleSegment s2 = new StyleSegment("b", Arrays.asList("green", "bold"));
+        Assert.assertSame(s1.getStyleClasses(), s2.getStyleClasses());
+        Assert.assertEquals(Arrays.asList("green", "bold"), s1.getStyleClasses());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testStyleClasses01() {
+        new StyleSegment("a", Arrays.asList("green")).getStyleClasses().add("bold");
+    }
+
+    @Test
+    public void testStyleClasses02() {
+        for (int i = 0; i < StyleSegment.MAX_INTERNED * 2; i++) {
+            StyleSegment styleSegment = new StyleSegment("a", Arrays.asList("green", "user-" + i));
+            Assert.assertEquals(Arrays.asList("green", "user-" + i), styleSegment.getStyleClasses());
+        }
+        Assert.assertTrue(StyleSegment.internedSize() <= StyleSegment.MAX_INTERNED);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.wnebyte.consolefx;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TrieCompleterTest {
+
+    private static List<String> complete(Completer completer, String input) {
+        return completer.complete(input, input.length()).toCompletableFuture().join();
+    }
+
+    @Test
+    public void testComplete00() {
+        TrieCompleter completer = new TrieCompleter("status", "stash", "commit");
+        List<String> candidates = complete(completer, "git st");
+        Assert.assertEquals(Arrays.asList("stash", "status"), candidates);
+        Assert.assertFalse(candidates instanceof TruncatedCandidates);
+    }
+
+    @Test
+    public void testComplete01() {
+        // more candidates than the limit, that share a shorter prefix than those that are returned
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < TrieCompleter.DEFAULT_LIMIT + 10; i++) {
+            words.add(String.format("sta%03d", i));
+        }
+        words.add("stb");
+        List<String> candidates = complete(new TrieCompleter(words), "st");
+        Assert.assertEquals(TrieCompleter.DEFAULT_LIMIT, candidates.size());
+        Assert.assertTrue(candidates instanceof TruncatedCandidates);
+        Assert.assertEquals("st", ((TruncatedCandidates) candidates).getCommonPrefix());
+        // every candidate starts with "sta", so the word can be extended
+        candidates = complete(new TrieCompleter(words.subList(0, words.size() - 1)), "s");
+        Assert.assertEquals("sta", ((TruncatedCandidates) candidates).getCommonPrefix());
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.wnebyte.consolefx.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CharArrayBufferTest {
+
+    @Test
+    public void testAppend00() {
+        CharArrayBuffer buffer = new CharArrayBuffer(2);
+        buffer.append('a');
+        buffer.append("bcdefghijklmnopqrstuvwxyz");
+        Assert.assertEquals(26, buffer.size());
+        Assert.assertEquals('z', buffer.charAt(25));
+        Assert.assertArrayEquals("abcdefghijklmnopqrstuvwxyz".toCharArray(), buffer.toCharArray());
+    }
+
+    @Test
+    public void testRemoveLast00() {
+        CharArrayBuffer buffer = new CharArrayBuffer();
+        buffer.append("secret");
+        buffer.removeLast(2);
+        Assert.assertArrayEquals("secr".toCharArray(), buffer.toCharArray());
+        buffer.removeLast(10);
+        Assert.assertTrue(buffer.isEmpty());
+        buffer.append("x");
+        buffer.clear();
+        Assert.assertEquals(0, buffer.size());
+    }
+}
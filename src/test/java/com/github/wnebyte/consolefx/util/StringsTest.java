@@ -5,6 +5,8 @@ import org.junit.Assert;
 import org.junit.Test;
 import static com.github.wnebyte.consolefx.util.Strings.replaceSequence;
 import static com.github.wnebyte.consolefx.util.Strings.split;
+import static com.github.wnebyte.consolefx.util.Strings.indexOfIgnoreCase;
+import static com.github.wnebyte.consolefx.util.Strings.lastIndexOfIgnoreCase;
 
 public class StringsTest {
 
@@ -57,4 +59,27 @@ public class StringsTest {
         s = replaceSequence(input, "mypassword", '*');
         Assert.assertEquals("login wne mypassword", s);
     }
+
+    @Test
+    public void testReplaceSequence01() {
+        char[] secret = "mypassword".toCharArray();
+        char[] arr = replaceSequence("login wne *****", secret, '*');
+        Assert.assertArrayEquals("login wne mypassword".toCharArray(), arr);
+
+        arr = replaceSequence("*", secret, '*');
+        Assert.assertArrayEquals(secret, arr);
+        Assert.assertNotSame(secret, arr);
+    }
+
+    @Test
+    public void testIndexOfIgnoreCase00() {
+        String s = "An Error, and another ERROR";
+        Assert.assertEquals(3, indexOfIgnoreCase(s, "error", 0));
+        Assert.assertEquals(22, indexOfIgnoreCase(s, "error", 4));
+        Assert.assertEquals(-1, indexOfIgnoreCase(s, "error", 23));
+        Assert.assertEquals(22, lastIndexOfIgnoreCase(s, "Error", s.length()));
+        Assert.assertEquals(3, lastIndexOfIgnoreCase(s, "Error", 21));
+        Assert.assertEquals(-1, lastIndexOfIgnoreCase(s, "Error", 2));
+        Assert.assertEquals(-1, lastIndexOfIgnoreCase("err", "error", 3));
+    }
 }
@@ -0,0 +1,25 @@
+package com.github.wnebyte.consolefx.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SuffixMatcherTest {
+
+    @Test
+    public void testFeed00() {
+        SuffixMatcher matcher = new SuffixMatcher(":msk");
+        Assert.assertFalse(matcher.feed("login :ms"));
+        Assert.assertTrue(matcher.feed('k'));
+        Assert.assertFalse(matcher.feed('x'));
+        Assert.assertTrue(matcher.feed("::msk"));
+    }
+
+    @Test
+    public void testFeed01() {
+        SuffixMatcher matcher = new SuffixMatcher("aab");
+        Assert.assertTrue(matcher.feed("aaab"));
+        Assert.assertTrue(matcher.feed("aab"));
+        matcher.reset();
+        Assert.assertFalse(matcher.feed("ab"));
+    }
+}
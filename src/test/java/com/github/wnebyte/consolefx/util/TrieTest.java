@@ -0,0 +1,40 @@
+package com.github.wnebyte.consolefx.util;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TrieTest {
+
+    @Test
+    public void testStartingWith00() {
+        Trie trie = new Trie(Arrays.asList("status", "stash", "start", "commit", "st"));
+        Assert.assertEquals(5, trie.size());
+        Assert.assertFalse(trie.add("stash"));
+        List<String> words = trie.startingWith("st", 10);
+        Assert.assertEquals(Arrays.asList("st", "start", "stash", "status"), words);
+        Assert.assertEquals(Arrays.asList("st", "start"), trie.startingWith("st", 2));
+        Assert.assertEquals(5, trie.startingWith("", 10).size());
+        Assert.assertTrue(trie.startingWith("x", 10).isEmpty());
+    }
+
+    @Test
+    public void testContains00() {
+        Trie trie = new Trie(Arrays.asList("commit", "checkout"));
+        Assert.assertTrue(trie.contains("commit"));
+        Assert.assertFalse(trie.contains("comm"));
+        Assert.assertFalse(trie.contains("commits"));
+    }
+
+    @Test
+    public void testCommonPrefix00() {
+        Trie trie = new Trie(Arrays.asList("status", "stash", "start", "commit"));
+        Assert.assertEquals("sta", trie.commonPrefix("s"));
+        Assert.assertEquals("commit", trie.commonPrefix("c"));
+        Assert.assertEquals("", trie.commonPrefix(""));
+        Assert.assertNull(trie.commonPrefix("x"));
+        trie.add("st");
+        Assert.assertEquals("st", trie.commonPrefix("s"));
+    }
+}